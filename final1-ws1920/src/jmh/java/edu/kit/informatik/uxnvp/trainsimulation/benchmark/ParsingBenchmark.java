@@ -0,0 +1,159 @@
+package edu.kit.informatik.uxnvp.trainsimulation.benchmark;
+
+import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
+import edu.kit.informatik.uxnvp.trainsimulation.util.ParsingUtility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written scanners of {@link ParsingUtility} with the {@link RegexParsing regular expressions} they
+ * replaced. Every invocation parses a fixed set of typical command arguments.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+    private static final int INPUT_AMOUNT = 64;
+    private static final int COORDINATE_BOUND = 100000;
+
+    private String[] points;
+    private String[] pointPairs;
+    private String[] integers;
+    private String[] rollingStockIds;
+
+    /**
+     * Generates the arguments to parse.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+        points = new String[INPUT_AMOUNT];
+        pointPairs = new String[INPUT_AMOUNT];
+        integers = new String[INPUT_AMOUNT];
+        rollingStockIds = new String[INPUT_AMOUNT];
+        for (int i = 0; i < INPUT_AMOUNT; i++) {
+            points[i] = randomPoint(random);
+            pointPairs[i] = randomPoint(random) + "," + randomPoint(random);
+            integers[i] = Integer.toString(random.nextInt());
+            rollingStockIds[i] = i % 2 == 0 ? "W" + random.nextInt(COORDINATE_BOUND) : "103-" + random.nextInt(1000);
+        }
+    }
+
+    private static String randomPoint(Random random) {
+        return String.format("(%d,%d)", random.nextInt(2 * COORDINATE_BOUND) - COORDINATE_BOUND,
+                random.nextInt(2 * COORDINATE_BOUND) - COORDINATE_BOUND);
+    }
+
+    /**
+     * Parses points by scanning.
+     * @param blackhole consumes the results.
+     * @throws SyntaxException never, all points are valid.
+     */
+    @Benchmark
+    public void scanPoints(Blackhole blackhole) throws SyntaxException {
+        for (String point : points) {
+            blackhole.consume(ParsingUtility.parsePackedPoint(point));
+        }
+    }
+
+    /**
+     * Parses points with regular expressions.
+     * @param blackhole consumes the results.
+     * @throws SyntaxException never, all points are valid.
+     */
+    @Benchmark
+    public void regexPoints(Blackhole blackhole) throws SyntaxException {
+        for (String point : points) {
+            blackhole.consume(RegexParsing.parsePoint(point));
+        }
+    }
+
+    /**
+     * Parses point pairs by scanning.
+     * @param blackhole consumes the results.
+     * @throws SyntaxException never, all point pairs are valid.
+     */
+    @Benchmark
+    public void scanPointPairs(Blackhole blackhole) throws SyntaxException {
+        for (String pointPair : pointPairs) {
+            blackhole.consume(ParsingUtility.parsePointPair(pointPair));
+        }
+    }
+
+    /**
+     * Parses point pairs with regular expressions.
+     * @param blackhole consumes the results.
+     * @throws SyntaxException never, all point pairs are valid.
+     */
+    @Benchmark
+    public void regexPointPairs(Blackhole blackhole) throws SyntaxException {
+        for (String pointPair : pointPairs) {
+            blackhole.consume(RegexParsing.parsePointPair(pointPair));
+        }
+    }
+
+    /**
+     * Parses integers by scanning.
+     * @param blackhole consumes the results.
+     * @throws SyntaxException never, all integers are valid.
+     */
+    @Benchmark
+    public void scanIntegers(Blackhole blackhole) throws SyntaxException {
+        for (String integer : integers) {
+            blackhole.consume(ParsingUtility.parseInteger(integer));
+        }
+    }
+
+    /**
+     * Parses integers with regular expressions.
+     * @param blackhole consumes the results.
+     * @throws SyntaxException never, all integers are valid.
+     */
+    @Benchmark
+    public void regexIntegers(Blackhole blackhole) throws SyntaxException {
+        for (String integer : integers) {
+            blackhole.consume(RegexParsing.parseInteger(integer));
+        }
+    }
+
+    /**
+     * Validates rolling stock ids by scanning.
+     * @param blackhole consumes the results.
+     * @throws SyntaxException never, all ids are valid.
+     */
+    @Benchmark
+    public void scanRollingStockIds(Blackhole blackhole) throws SyntaxException {
+        for (String id : rollingStockIds) {
+            blackhole.consume(ParsingUtility.parseRollingStockId(id));
+        }
+    }
+
+    /**
+     * Validates rolling stock ids with regular expressions.
+     * @param blackhole consumes the results.
+     * @throws SyntaxException never, all ids are valid.
+     */
+    @Benchmark
+    public void regexRollingStockIds(Blackhole blackhole) throws SyntaxException {
+        for (String id : rollingStockIds) {
+            blackhole.consume(RegexParsing.parseRollingStockId(id));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package edu.kit.informatik.uxnvp.trainsimulation.benchmark;
+
+import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
+import edu.kit.informatik.uxnvp.trainsimulation.model.Pair;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regular expression based parsing that {@link edu.kit.informatik.uxnvp.trainsimulation.util.ParsingUtility} used
+ * before it scanned the texts by hand. It is only kept as the baseline of the {@link ParsingBenchmark}.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+final class RegexParsing {
+    private static final Pattern INTEGER = Pattern.compile("[\\-+]?\\d+");
+    private static final Pattern INTEGER_PAIR = Pattern.compile("(" + INTEGER + "),(" + INTEGER + ")");
+    private static final Pattern POINT = Pattern.compile("\\(" + INTEGER_PAIR + "\\)");
+    private static final Pattern TWO_POINTS = Pattern.compile("(" + POINT + "),(" + POINT + ")");
+    private static final Pattern ALPHANUMERICAL = Pattern.compile("[a-zA-Z0-9]+");
+    private static final Pattern ROLLING_STOCK_ID = Pattern.compile("(W" + INTEGER
+            + "|" + ALPHANUMERICAL + "-" + ALPHANUMERICAL + ")");
+
+    /**
+     * Utility classes should never be instantiated.
+     */
+    private RegexParsing() {
+        throw new AssertionError("utility classes should never be instantiated.");
+    }
+
+    /**
+     * Parses a {@link String} into a {@link Point}.
+     * @param input the text to parse.
+     * @return the parsed point.
+     * @throws SyntaxException if the input text does not match the point syntax.
+     */
+    static Point parsePoint(String input) throws SyntaxException {
+        Matcher matcher = POINT.matcher(input);
+        if (!matcher.find()) {
+            throw new SyntaxException(String.format("'%s' is not a valid point.", input));
+        } else {
+            int x = Integer.parseInt(matcher.group(1));
+            int y = Integer.parseInt(matcher.group(2));
+            return new Point(x, y);
+        }
+    }
+
+    /**
+     * Parses a {@link String} into a pair of {@link Point}s.
+     * @param input the text to parse.
+     * @return the parsed pair of points.
+     * @throws SyntaxException if the input text does not match the syntax of a point pair.
+     */
+    static Pair<Point> parsePointPair(String input) throws SyntaxException {
+        Matcher matcher = TWO_POINTS.matcher(input);
+        if (!matcher.find()) {
+            throw new SyntaxException(String.format("'%s' not a valid point list.", input));
+        } else {
+            Point point1 = parsePoint(matcher.group(1));
+            Point point2 = parsePoint(matcher.group(4));
+            return new Pair<>(point1, point2);
+        }
+    }
+
+    /**
+     * Parses a {@link String} into an int.
+     * @param input the text to parse
+     * @return the parsed integer.
+     * @throws SyntaxException if the input text does not match the integer syntax.
+     */
+    static int parseInteger(String input) throws SyntaxException {
+        if (!INTEGER.matcher(input).matches()) {
+            throw new SyntaxException(String.format("'%s' is not an integer number.", input));
+        }
+        try {
+            return Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            throw new SyntaxException(String.format("'%s' is not an integer number.", input));
+        }
+    }
+
+    /**
+     * Parses a {@link String} into a rolling stock identifier.
+     * @param input the text to parse.
+     * @return the input (if it is valid).
+     * @throws SyntaxException if the input is not a valid rolling stock id.
+     */
+    static String parseRollingStockId(String input) throws SyntaxException {
+        if (!ROLLING_STOCK_ID.matcher(input).matches()) {
+            throw new SyntaxException(String.format("'%s' is not a valid rolling stock id.", input));
+        } else {
+            return input;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package edu.kit.informatik.uxnvp.trainsimulation.benchmark;
+
+import edu.kit.informatik.uxnvp.trainsimulation.controller.TrainSimulation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Switch;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Engine;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.EngineType;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A synthetic train simulation for benchmarks. The track network is built along one path, which is the route the
+ * trains drive on, and the trains are distributed evenly along that path so that they do not crash while driving in
+ * the same direction.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class SyntheticSimulation {
+    /**
+     * The length of every track (and of every switch) in a synthetic network.
+     */
+    public static final int SEGMENT_LENGTH = 4;
+
+    private final TrainSimulation simulation;
+    private final List<Track> tracks;
+    private final List<TrainLocation> path;
+    private final boolean closed;
+
+    /**
+     * The layouts of synthetic track networks.
+     */
+    public enum Layout {
+        /**
+         * A square ring.
+         */
+        RING,
+        /**
+         * A closed serpentine that covers a rectangular area row by row.
+         */
+        GRID,
+        /**
+         * A long straight line where every second track is a switch with a dead-end spur.
+         */
+        LINE
+    }
+
+    /**
+     * Builds a synthetic simulation.
+     * @param layout the layout of the track network.
+     * @param trackAmount the approximate amount of tracks in the network.
+     * @param trainAmount the amount of trains to put on the rails. If the network is too small for that many trains,
+     * as many trains as possible are put on the rails.
+     * @param trainLength the length of every train.
+     */
+    public SyntheticSimulation(Layout layout, int trackAmount, int trainAmount, int trainLength) {
+        this.simulation = new TrainSimulation();
+        this.tracks = new ArrayList<>();
+        this.path = new ArrayList<>();
+        this.closed = layout != Layout.LINE;
+
+        if (layout == Layout.RING) {
+            int side = Math.max(1, trackAmount / 4) * SEGMENT_LENGTH;
+            buildPath(new Point(0, 0), new Point(side, 0), new Point(side, side), new Point(0, side),
+                    new Point(0, 0));
+        } else if (layout == Layout.GRID) {
+            buildGrid(trackAmount);
+        } else {
+            buildLine(trackAmount);
+        }
+        putTrains(trainAmount, trainLength);
+    }
+
+    private void buildGrid(int trackAmount) {
+        // an even amount of rows, so that the last row ends next to the column that leads back to the start
+        int rows = Math.max(2, 2 * (int) Math.ceil(Math.sqrt(trackAmount) / 2));
+        int width = 1 + SEGMENT_LENGTH * Math.max(1, trackAmount / rows);
+        List<Point> corners = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            int y = 2 * row;
+            if (row % 2 == 0) {
+                corners.add(new Point(1, y));
+                corners.add(new Point(width, y));
+            } else {
+                corners.add(new Point(width, y));
+                corners.add(new Point(1, y));
+            }
+        }
+        corners.add(new Point(0, 2 * (rows - 1)));
+        corners.add(new Point(0, 0));
+        corners.add(new Point(1, 0));
+        buildPath(corners.toArray(new Point[0]));
+    }
+
+    private void buildLine(int trackAmount) {
+        int x = 0;
+        for (int i = 0; i < trackAmount; i++) {
+            Point start = new Point(x, 0);
+            Point end = new Point(x + SEGMENT_LENGTH, 0);
+            if (i % 2 == 0) {
+                register(new Track(start, end));
+            } else {
+                Switch switchTrack = new Switch(start, end, new Point(x, SEGMENT_LENGTH));
+                register(switchTrack);
+                simulation.setSwitch(switchTrack, end);
+            }
+            addToPath(start, end);
+            x += SEGMENT_LENGTH;
+        }
+    }
+
+    /**
+     * Builds a path of tracks through a list of corners. Every straight part is split into tracks of
+     * {@link #SEGMENT_LENGTH}.
+     * @param corners the corners of the path.
+     */
+    private void buildPath(Point... corners) {
+        for (int i = 1; i < corners.length; i++) {
+            Point from = corners[i - 1];
+            Point to = corners[i];
+            Direction direction = Direction.fromPoint(new Point(Integer.signum(to.getX() - from.getX()),
+                    Integer.signum(to.getY() - from.getY())));
+            Point start = from;
+            while (!start.equals(to)) {
+                long remaining = start.distanceTo(to);
+                int length = (int) Math.min(SEGMENT_LENGTH, remaining);
+                Point end = new Point(start.getX() + direction.getDx() * length,
+                        start.getY() + direction.getDy() * length);
+                register(new Track(start, end));
+                addToPath(start, end);
+                start = end;
+            }
+        }
+    }
+
+    private void register(Track track) {
+        simulation.getTrackNetwork().registerTrack(track);
+        tracks.add(track);
+    }
+
+    private void addToPath(Point start, Point end) {
+        Direction direction = Direction.fromPoint(end.subtract(start));
+        Point point = start;
+        while (!point.equals(end)) {
+            point = point.add(direction.toPoint());
+            path.add(new TrainLocation(point, direction));
+        }
+    }
+
+    private void putTrains(int trainAmount, int trainLength) {
+        // consecutive trains must never be in the middle of the same track
+        int minimumSpacing = trainLength + 2 * SEGMENT_LENGTH + 2;
+        int amount = Math.min(trainAmount, path.size() / minimumSpacing);
+        if (amount == 0) {
+            return;
+        }
+        int spacing = path.size() / amount;
+        for (int i = 0; i < amount; i++) {
+            Train train = simulation.getFleet().getOrCreateTrain(i + 1);
+            Engine engine = new Engine(EngineType.DIESEL, "B", "n" + i, trainLength, true, true);
+            simulation.getFleet().addEngine(engine);
+            train.addRollingStock(engine);
+            simulation.putTrain(train, path.get(i * spacing + trainLength));
+        }
+    }
+
+    /**
+     * Returns the simulation.
+     * @return the simulation.
+     */
+    public TrainSimulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Returns all tracks of the network in the order they were registered.
+     * @return a read-only list of all tracks.
+     */
+    public List<Track> getTracks() {
+        return Collections.unmodifiableList(tracks);
+    }
+
+    /**
+     * Returns the route the trains drive on. Every location is one step after the previous one.
+     * @return a read-only list of all locations on the route.
+     */
+    public List<TrainLocation> getPath() {
+        return Collections.unmodifiableList(path);
+    }
+
+    /**
+     * Returns whether the path is a loop, i.e. whether walking one step from the last location leads to the first
+     * location.
+     * @return true if the path is a loop and false if it ends at a dead end.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,97 @@
+package edu.kit.informatik.uxnvp.trainsimulation.benchmark;
+
+import edu.kit.informatik.uxnvp.trainsimulation.controller.TrackNetwork;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the track network of a synthetic simulation without trains.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackNetworkBenchmark {
+    @Param({"RING", "GRID", "LINE"})
+    private SyntheticSimulation.Layout layout;
+
+    @Param({"1000", "10000"})
+    private int tracks;
+
+    private TrackNetwork network;
+    private List<Track> allTracks;
+    private List<TrainLocation> path;
+    private int trackIndex;
+    private Track removedTrack;
+    private TrainLocation location;
+
+    /**
+     * Builds the synthetic network.
+     */
+    @Setup
+    public void setUp() {
+        SyntheticSimulation synthetic = new SyntheticSimulation(layout, tracks, 0, 1);
+        network = synthetic.getSimulation().getTrackNetwork();
+        allTracks = synthetic.getTracks();
+        path = synthetic.getPath();
+        trackIndex = 0;
+        location = path.get(0);
+    }
+
+    /**
+     * Registers the track again that was removed by the last invocation, so every invocation sees the same network.
+     */
+    @TearDown(Level.Invocation)
+    public void restoreTrack() {
+        if (removedTrack != null) {
+            network.registerTrack(removedTrack);
+            removedTrack = null;
+        }
+    }
+
+    /**
+     * Removes a track from the network. The removed track changes with every invocation.
+     * @return whether the track could be removed.
+     */
+    @Benchmark
+    public boolean removeTrack() {
+        trackIndex = (trackIndex + 1) % allTracks.size();
+        Track track = allTracks.get(trackIndex);
+        boolean removed = network.removeTrack(track);
+        if (removed) {
+            removedTrack = track;
+        }
+        return removed;
+    }
+
+    /**
+     * Walks one step along the path of the network and starts over at the end of the path.
+     * @return the location after the step.
+     */
+    @Benchmark
+    public TrainLocation walkStep() {
+        TrainLocation next = network.walkStep(location);
+        location = next == null ? path.get(0) : next;
+        return location;
+    }
+}
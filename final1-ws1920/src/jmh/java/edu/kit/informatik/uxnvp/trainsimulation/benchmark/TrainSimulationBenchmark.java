@@ -0,0 +1,115 @@
+package edu.kit.informatik.uxnvp.trainsimulation.benchmark;
+
+import edu.kit.informatik.uxnvp.trainsimulation.controller.TrainSimulation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Engine;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.EngineType;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the simulation of trains on a synthetic network.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrainSimulationBenchmark {
+    @Param({"RING", "GRID", "LINE"})
+    private SyntheticSimulation.Layout layout;
+
+    @Param({"1000", "10000"})
+    private int tracks;
+
+    @Param({"10", "100"})
+    private int trains;
+
+    @Param({"10", "1000"})
+    private int trainLength;
+
+    @Param({"1"})
+    private int speed;
+
+    @Param({"false", "true"})
+    private boolean railGraph;
+
+    @Param({"false", "true"})
+    private boolean collisionGrid;
+
+    @Param({"1"})
+    private int parallelism;
+
+    @Param({"false", "true"})
+    private boolean fastForward;
+
+    @Param({"false", "true"})
+    private boolean eventDriven;
+
+    private TrainSimulation simulation;
+    private Train trainToPut;
+    private List<TrainLocation> path;
+    private int putIndex;
+    private boolean forward;
+
+    /**
+     * Builds the synthetic simulation and a train that is not on the rails yet.
+     */
+    @Setup
+    public void setUp() {
+        SyntheticSimulation synthetic = new SyntheticSimulation(layout, tracks, trains, trainLength);
+        simulation = synthetic.getSimulation();
+        simulation.getOptions().setRailGraphEnabled(railGraph);
+        simulation.getOptions().setCollisionGridEnabled(collisionGrid);
+        simulation.getOptions().setParallelism(parallelism);
+        simulation.getOptions().setFastForwardEnabled(fastForward);
+        simulation.getOptions().setEventDrivenEnabled(eventDriven);
+        path = synthetic.getPath();
+
+        trainToPut = simulation.getFleet().getOrCreateTrain(simulation.getFleet().getAllTrains().size() + 1);
+        Engine engine = new Engine(EngineType.STEAM, "P", "put", trainLength, true, true);
+        simulation.getFleet().addEngine(engine);
+        trainToPut.addRollingStock(engine);
+        putIndex = trainLength;
+        forward = true;
+    }
+
+    /**
+     * Runs one simulation step. The direction changes with every invocation, so trains on a line do not run off the
+     * rails.
+     * @return the crashes of the step.
+     */
+    @Benchmark
+    public Set<Set<Train>> runStep() {
+        forward = !forward;
+        return simulation.runStep(forward ? speed : -speed);
+    }
+
+    /**
+     * Checks whether a train fits on the rails at a location of the path. The location moves along the path with
+     * every invocation.
+     * @return whether the train fits.
+     */
+    @Benchmark
+    public boolean fitsOnTrackPut() {
+        putIndex = putIndex + 1 < path.size() ? putIndex + 1 : trainLength;
+        return simulation.fitsOnTrackPut(trainToPut, path.get(putIndex));
+    }
+}
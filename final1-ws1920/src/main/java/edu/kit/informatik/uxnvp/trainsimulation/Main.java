@@ -1,13 +1,24 @@
 package edu.kit.informatik.uxnvp.trainsimulation;
 
+import edu.kit.informatik.BufferedOutputSink;
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.BatchRunner;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.CommandJournal;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+
 /**
  * Program entry point for the train simulation.
  * @author Max Schweikart
  * @version 1.0
  */
 public final class Main {
+    private static final String BATCH_ARGUMENT = "--batch";
+    private static final String JOURNAL_ARGUMENT = "--journal";
+
     /**
      * Private constructor that prevents this utility class from being initialized.
      */
@@ -17,10 +28,42 @@ public final class Main {
 
     /**
      * Entry point method called when launching this program.
-     * @param args the command line arguments used when launching this program. Won't be used.
+     * @param args the command line arguments used when launching this program. '--batch &lt;script&gt;' runs a script
+     * file (or the standard input if the script is '-') without a prompt. '--journal &lt;directory&gt;' recovers the
+     * simulation from a journal directory and records all following commands in it. All other arguments are ignored.
      */
     public static void main(String[] args) {
+        // the output is flushed whenever the prompt waits for input
+        Terminal.setOutputSink(new BufferedOutputSink(System.out, System.err));
         TrainSimulationCLI cli = new TrainSimulationCLI();
-        cli.startPromptLoop();
+
+        String scriptPath = null;
+        String journalDirectory = null;
+        for (int i = 0; i < args.length; i++) {
+            if (BATCH_ARGUMENT.equals(args[i])) {
+                scriptPath = i + 1 < args.length ? args[++i] : BatchRunner.STANDARD_INPUT;
+            } else if (JOURNAL_ARGUMENT.equals(args[i]) && i + 1 < args.length) {
+                journalDirectory = args[++i];
+            }
+        }
+
+        if (journalDirectory != null) {
+            try {
+                cli.setJournal(CommandJournal.open(cli, Paths.get(journalDirectory)));
+            } catch (IOException | InvalidPathException e) {
+                Terminal.printError(String.format("'%s' can not be used as a journal.", journalDirectory));
+                return;
+            }
+        }
+
+        if (scriptPath != null) {
+            new BatchRunner(cli).run(scriptPath);
+        } else {
+            cli.startPromptLoop();
+        }
+
+        if (cli.getJournal() != null) {
+            cli.getJournal().close();
+        }
     }
 }
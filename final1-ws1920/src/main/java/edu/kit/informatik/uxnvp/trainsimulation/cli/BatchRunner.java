@@ -0,0 +1,78 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli;
+
+import edu.kit.informatik.BufferedOutputSink;
+import edu.kit.informatik.OutputSink;
+import edu.kit.informatik.Terminal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+
+/**
+ * Runs a command script without a prompt. The commands are run by the same {@link Command commands} as in the prompt
+ * loop, but the output is only flushed when the buffers are full instead of before every prompt. After the script,
+ * the amount of commands per second is reported on the error stream.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class BatchRunner {
+    /**
+     * The script path that stands for the standard input.
+     */
+    public static final String STANDARD_INPUT = "-";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double NANOSECONDS_PER_SECOND = 1e9;
+
+    private final TrainSimulationCLI cli;
+
+    /**
+     * Constructs a batch runner.
+     * @param cli the CLI to run the commands with.
+     */
+    public BatchRunner(TrainSimulationCLI cli) {
+        this.cli = cli;
+    }
+
+    /**
+     * Runs all commands of a script until the script ends or until the exit command is run.
+     * @param scriptPath the path of the script file or {@link #STANDARD_INPUT} for reading the script from the standard
+     * input.
+     */
+    public void run(String scriptPath) {
+        BufferedReader script;
+        try {
+            script = STANDARD_INPUT.equals(scriptPath)
+                    ? new BufferedReader(new InputStreamReader(System.in), BUFFER_SIZE)
+                    : Files.newBufferedReader(Paths.get(scriptPath));
+        } catch (IOException | InvalidPathException e) {
+            Terminal.printError(String.format("'%s' can not be read.", scriptPath));
+            return;
+        }
+
+        OutputSink previousSink = Terminal.getOutputSink();
+        Terminal.setOutputSink(new BufferedOutputSink(System.out, System.err, BUFFER_SIZE));
+
+        long start = System.nanoTime();
+        long commandAmount;
+        try (BufferedReader reader = script) {
+            commandAmount = cli.runScript(reader);
+        } catch (IOException e) {
+            commandAmount = -1;
+        } finally {
+            Terminal.setOutputSink(previousSink);
+        }
+        long duration = System.nanoTime() - start;
+
+        if (commandAmount < 0) {
+            Terminal.printError(String.format("'%s' can not be read.", scriptPath));
+        } else {
+            double seconds = duration / NANOSECONDS_PER_SECOND;
+            System.err.println(String.format("%d commands in %.3f s (%.0f commands/s)", commandAmount, seconds,
+                    seconds > 0 ? commandAmount / seconds : 0));
+        }
+    }
+}
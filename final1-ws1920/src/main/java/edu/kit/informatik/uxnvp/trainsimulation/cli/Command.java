@@ -6,7 +6,6 @@ package edu.kit.informatik.uxnvp.trainsimulation.cli;
  * @version 1.0
  */
 public abstract class Command {
-    private static final String ARGUMENTS_TAIL_REGEX = "( \\S+)*";
     private final TrainSimulationCLI cli;
     private final String prefix;
     private final int expectedArgumentAmount;
@@ -31,24 +30,69 @@ public abstract class Command {
     public void invoke(String input) throws SyntaxException {
         if (input == null || !input.startsWith(prefix)) {
             throw new SyntaxException("command invoked with invalid prefix.");
-        } else if (!input.matches(prefix + ARGUMENTS_TAIL_REGEX)) {
-            throw new SyntaxException("arguments must be separated by one space.");
         }
 
-        // remove prefix and cut off leading whitespace, if present ("prefix arg1 arg2" -> "arg1 arg2")
-        String argumentsString = input.substring(prefix.length()).trim();
-        // split arguments with the default whitespace character
-        String[] arguments = argumentsString.isEmpty() ? new String[0] : argumentsString.split(" ");
-
+        String[] arguments = splitArguments(input, prefix.length());
         if (arguments.length > expectedArgumentAmount) {
             throw new SyntaxException("too many arguments.");
         } else if (arguments.length < expectedArgumentAmount) {
             throw new SyntaxException("not enough arguments.");
-        } else {
+        } else if (!changesSimulation() || cli.recordCommand(input)) {
             execute(arguments);
         }
     }
 
+    /**
+     * Splits the arguments after the prefix of a command. Every argument must be preceded by exactly one space and must
+     * not contain any whitespace.
+     * @param input the command that the user ran.
+     * @param start the index of the first character after the prefix.
+     * @return the arguments. Characters that {@link String#trim()} removes are cut off from the first and the last
+     * argument.
+     * @throws SyntaxException if the arguments are not separated by one space.
+     */
+    private static String[] splitArguments(String input, int start) throws SyntaxException {
+        for (int i = start; i < input.length(); i++) {
+            char character = input.charAt(i);
+            boolean separatorExpected = i == start || isWhitespace(character);
+            if (separatorExpected && (character != ' ' || i + 1 == input.length()
+                    || isWhitespace(input.charAt(i + 1)))) {
+                throw new SyntaxException("arguments must be separated by one space.");
+            }
+        }
+
+        // remove prefix and cut off leading whitespace, if present ("prefix arg1 arg2" -> "arg1 arg2")
+        String argumentsString = input.substring(start).trim();
+        if (argumentsString.isEmpty()) {
+            return new String[0];
+        }
+        int argumentAmount = 1;
+        for (int i = 0; i < argumentsString.length(); i++) {
+            if (argumentsString.charAt(i) == ' ') {
+                argumentAmount++;
+            }
+        }
+        String[] arguments = new String[argumentAmount];
+        int argumentStart = 0;
+        for (int i = 0; i < argumentAmount; i++) {
+            int argumentEnd = argumentsString.indexOf(' ', argumentStart);
+            argumentEnd = argumentEnd < 0 ? argumentsString.length() : argumentEnd;
+            arguments[i] = argumentsString.substring(argumentStart, argumentEnd);
+            argumentStart = argumentEnd + 1;
+        }
+        return arguments;
+    }
+
+    /**
+     * Checks whether a character is a whitespace character in the sense of the regular expression class \s.
+     * @param character the character to check.
+     * @return whether the character is a space, a tab, a line break, a vertical tab or a form feed.
+     */
+    private static boolean isWhitespace(char character) {
+        return character == ' ' || character == '\t' || character == '\n' || character == '\u000B'
+                || character == '\f' || character == '\r';
+    }
+
     /**
      * Returns the CLI instance this command is run on.
      * @return the CLI instance this command is run on.
@@ -65,6 +109,15 @@ public abstract class Command {
         return prefix;
     }
 
+    /**
+     * Returns whether this command might change the simulation. Such commands are recorded in the
+     * {@link CommandJournal} of the CLI before they are run.
+     * @return whether this command might change the simulation.
+     */
+    public boolean changesSimulation() {
+        return false;
+    }
+
     /**
      * Execute the command with a given array of arguments. The amount of arguments should already have been checked.
      * @param args the arguments of this commands as strings.
@@ -0,0 +1,295 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli;
+
+import edu.kit.informatik.OutputSink;
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.uxnvp.trainsimulation.controller.SimulationSnapshot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An append-only journal of all commands that change the simulation. Every command is written to the journal before
+ * it is run, so a simulation can be recovered after the program died by replaying the journal.<br/>
+ * Forcing every command to the disk would make the disk the bottleneck, so commands are committed in groups: the
+ * journal is forced once {@link #GROUP_SIZE} commands are pending or {@link #GROUP_COMMIT_INTERVAL} milliseconds after
+ * the first pending command, whichever comes first. A crash can therefore only lose the commands of the last group.
+ * <br/>
+ * To keep the replay short, the journal is split into generations. A checkpoint writes a {@link SimulationSnapshot}
+ * of the simulation as the start of a new generation and starts an empty journal for it, so recovering only loads the
+ * latest snapshot and replays the commands after it. Checkpoints are taken every {@link #CHECKPOINT_INTERVAL}
+ * commands and whenever the simulation is replaced.<br/>
+ * The directory of a journal contains the files 'snapshot-&lt;generation&gt;.bin' (not for the first generation) and
+ * 'journal-&lt;generation&gt;.log' with one command per line.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class CommandJournal {
+    /**
+     * The maximum amount of commands that are committed together.
+     */
+    public static final int GROUP_SIZE = 64;
+    /**
+     * The maximum amount of milliseconds that a command waits for being committed.
+     */
+    public static final long GROUP_COMMIT_INTERVAL = 50;
+    /**
+     * The amount of commands after which a checkpoint is taken.
+     */
+    public static final int CHECKPOINT_INTERVAL = 100000;
+
+    private static final Pattern SNAPSHOT_FILE_NAME = Pattern.compile("snapshot-(\\d+)\\.bin");
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final char SEPARATOR = '\n';
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final TrainSimulationCLI cli;
+    private final Path directory;
+    private final ScheduledExecutorService committer;
+    private ByteBuffer pending;
+    private int pendingAmount;
+    private int commandsSinceCheckpoint;
+    private int generation;
+    private FileChannel channel;
+
+    /**
+     * Constructs a journal for a directory. The journal is not opened yet.
+     * @param cli the CLI whose simulation is recorded.
+     * @param directory the directory of the journal files.
+     */
+    private CommandJournal(TrainSimulationCLI cli, Path directory) {
+        this.cli = cli;
+        this.directory = directory;
+        this.pending = ByteBuffer.allocate(BUFFER_SIZE);
+        this.committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Recovers the simulation of a CLI from a journal directory and opens the journal for recording the following
+     * commands. The directory is created if it does not exist. The output of the replayed commands is discarded.
+     * @param cli the CLI to recover the simulation of. Its prompt loop must not be running.
+     * @param directory the directory of the journal files.
+     * @return the opened journal.
+     * @throws IOException if the journal can not be read or written.
+     */
+    public static CommandJournal open(TrainSimulationCLI cli, Path directory) throws IOException {
+        CommandJournal journal = new CommandJournal(cli, directory);
+        journal.recover();
+        journal.committer.scheduleWithFixedDelay(journal::commitQuietly, GROUP_COMMIT_INTERVAL,
+                GROUP_COMMIT_INTERVAL, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+        return journal;
+    }
+
+    /**
+     * Loads the latest snapshot, replays the complete commands of its journal and opens the journal for appending.
+     * @throws IOException if the journal can not be read or written.
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        generation = findLatestGeneration();
+        if (generation > 0) {
+            cli.setSimulation(SimulationSnapshot.load(getSnapshotPath(generation),
+                    cli.getSimulation().getOptions()));
+        }
+
+        Path journalPath = getJournalPath(generation);
+        long validLength = 0;
+        if (Files.exists(journalPath)) {
+            byte[] content = Files.readAllBytes(journalPath);
+            // a command that was not written completely was never run, so it is dropped
+            int end = content.length;
+            while (end > 0 && content[end - 1] != SEPARATOR) {
+                end--;
+            }
+            validLength = end;
+            replay(new String(content, 0, end, StandardCharsets.UTF_8));
+        }
+
+        channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        deleteOlderGenerations();
+    }
+
+    /**
+     * Runs the commands of a journal without printing their output.
+     * @param commands the commands, one per line.
+     * @throws IOException if the commands can not be read.
+     */
+    private void replay(String commands) throws IOException {
+        OutputSink previousSink = Terminal.getOutputSink();
+        Terminal.setOutputSink(new DiscardingOutputSink());
+        try {
+            commandsSinceCheckpoint = (int) cli.runScript(new BufferedReader(new StringReader(commands)));
+        } finally {
+            Terminal.setOutputSink(previousSink);
+        }
+    }
+
+    /**
+     * Records a command before it is run. The command is committed together with the other commands of its group.
+     * Commands recorded after the journal was closed are ignored.
+     * @param command the command to record. Must not contain a line break.
+     * @throws IOException if the journal can not be written.
+     */
+    public synchronized void record(String command) throws IOException {
+        if (channel == null) {
+            // closed, e.g. by the shutdown hook while the last commands are still running
+            return;
+        }
+        if (commandsSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+            // the simulation does not contain the effects of the command yet
+            checkpoint();
+        }
+        byte[] bytes = (command + SEPARATOR).getBytes(StandardCharsets.UTF_8);
+        if (pending.remaining() < bytes.length) {
+            commit();
+            if (pending.capacity() < bytes.length) {
+                pending = ByteBuffer.allocate(bytes.length);
+            }
+        }
+        pending.put(bytes);
+        pendingAmount++;
+        commandsSinceCheckpoint++;
+        if (pendingAmount >= GROUP_SIZE) {
+            commit();
+        }
+    }
+
+    /**
+     * Writes all pending commands to the journal and forces them to the disk.
+     * @throws IOException if the journal can not be written.
+     */
+    public synchronized void commit() throws IOException {
+        if (pendingAmount == 0 || channel == null) {
+            return;
+        }
+        pending.flip();
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+        }
+        pending.clear();
+        pendingAmount = 0;
+        channel.force(false);
+    }
+
+    /**
+     * Starts a new generation with a snapshot of the current simulation and an empty journal. The files of the
+     * previous generation are deleted afterwards.
+     * @throws IOException if the snapshot or the journal can not be written or if the journal was closed.
+     */
+    public synchronized void checkpoint() throws IOException {
+        if (channel == null) {
+            throw new IOException("the journal is closed.");
+        }
+        commit();
+        int nextGeneration = generation + 1;
+        Path snapshotPath = getSnapshotPath(nextGeneration);
+        Path temporaryPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + TEMPORARY_SUFFIX);
+        SimulationSnapshot.save(cli.getSimulation(), temporaryPath);
+        // the snapshot only becomes visible to the recovery once it is complete
+        Files.move(temporaryPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE);
+
+        FileChannel nextChannel = FileChannel.open(getJournalPath(nextGeneration), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        channel.close();
+        channel = nextChannel;
+        generation = nextGeneration;
+        commandsSinceCheckpoint = 0;
+        deleteOlderGenerations();
+    }
+
+    /**
+     * Commits the pending commands and closes the journal. Commands that are recorded afterwards are ignored.
+     */
+    public synchronized void close() {
+        committer.shutdown();
+        commitQuietly();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // the commands were forced to the disk before
+            }
+            channel = null;
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException e) {
+            // the commands stay pending and are committed with the next group
+        }
+    }
+
+    private int findLatestGeneration() throws IOException {
+        int latestGeneration = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = SNAPSHOT_FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    latestGeneration = Math.max(latestGeneration, Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        return latestGeneration;
+    }
+
+    private void deleteOlderGenerations() throws IOException {
+        for (int olderGeneration = generation - 1; olderGeneration >= 0; olderGeneration--) {
+            boolean deleted = Files.deleteIfExists(getJournalPath(olderGeneration));
+            deleted |= Files.deleteIfExists(getSnapshotPath(olderGeneration));
+            if (!deleted) {
+                // all older generations were deleted before
+                break;
+            }
+        }
+    }
+
+    private Path getSnapshotPath(int generation) {
+        return directory.resolve(String.format("snapshot-%d.bin", generation));
+    }
+
+    private Path getJournalPath(int generation) {
+        return directory.resolve(String.format("journal-%d.log", generation));
+    }
+
+    /**
+     * An output sink that drops all lines.
+     */
+    private static final class DiscardingOutputSink implements OutputSink {
+        @Override
+        public void printLine(String message) {
+            // replayed commands are not printed again
+        }
+
+        @Override
+        public void printError(String message) {
+            // replayed commands are not printed again
+        }
+
+        @Override
+        public void flush() {
+            // there is nothing to flush
+        }
+    }
+}
@@ -4,6 +4,7 @@ import edu.kit.informatik.Terminal;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.AddSwitchCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.AddTrackCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.AddTrainCommand;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.command.CheckpointCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.CreateCoachCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.CreateEngineCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.CreateTrainSetCommand;
@@ -16,15 +17,23 @@ import edu.kit.informatik.uxnvp.trainsimulation.cli.command.ListEnginesCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.ListTracksCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.ListTrainSetsCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.ListTrainsCommand;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.command.LoadCommand;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.command.PredictCrashesCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.PutTrainCommand;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.command.RouteCommand;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.command.RouteTrainCommand;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.command.SaveCommand;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.command.SetOptionCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.SetSwitchCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.ShowTrainCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.command.StepCommand;
 import edu.kit.informatik.uxnvp.trainsimulation.controller.TrainSimulation;
+import edu.kit.informatik.uxnvp.trainsimulation.util.PrefixTrie;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 /**
  * A command-line-interface for interacting with the train simulation.
@@ -32,8 +41,9 @@ import java.util.Set;
  * @version 1.0
  */
 public class TrainSimulationCLI {
-    private final Set<Command> commands;
-    private final TrainSimulation simulation;
+    private final PrefixTrie<Command> commandsByPrefix;
+    private TrainSimulation simulation;
+    private CommandJournal journal;
 
     private boolean promptLoopRunning = false;
 
@@ -41,7 +51,7 @@ public class TrainSimulationCLI {
      * Constructs a new CLI for a train simulation.
      */
     public TrainSimulationCLI() {
-        commands = new HashSet<>(Arrays.asList(
+        List<Command> commands = Arrays.asList(
                 new AddTrackCommand(this),
                 new AddSwitchCommand(this),
                 new DeleteTrackCommand(this),
@@ -60,8 +70,19 @@ public class TrainSimulationCLI {
                 new ListTrainsCommand(this),
                 new ShowTrainCommand(this),
                 new PutTrainCommand(this),
-                new StepCommand(this)
-        ));
+                new StepCommand(this),
+                new RouteCommand(this),
+                new RouteTrainCommand(this),
+                new PredictCrashesCommand(this),
+                new SetOptionCommand(this),
+                new SaveCommand(this),
+                new LoadCommand(this),
+                new CheckpointCommand(this)
+        );
+        commandsByPrefix = new PrefixTrie<>();
+        for (Command command : commands) {
+            commandsByPrefix.put(command.getPrefix(), command);
+        }
         simulation = new TrainSimulation();
     }
 
@@ -75,7 +96,30 @@ public class TrainSimulationCLI {
                 String input = Terminal.readLine();
                 handleInput(input);
             }
+            Terminal.flush();
+        }
+    }
+
+    /**
+     * Runs all commands of a script until the script ends or until the exit command is run. The prompt loop must not
+     * be running.
+     * @param script the reader to read the commands from, one command per line.
+     * @return the amount of commands that were run.
+     * @throws IOException if the script can not be read.
+     */
+    public long runScript(BufferedReader script) throws IOException {
+        long commandAmount = 0;
+        promptLoopRunning = true;
+        String input = script.readLine();
+        while (promptLoopRunning && input != null) {
+            handleInput(input);
+            commandAmount++;
+            if (promptLoopRunning) {
+                input = script.readLine();
+            }
         }
+        promptLoopRunning = false;
+        return commandAmount;
     }
 
     /**
@@ -86,15 +130,13 @@ public class TrainSimulationCLI {
     }
 
     /**
-     * Finds a command based on the prefix of the given input.
+     * Finds a command based on the prefix of the given input. If the prefixes of several commands fit, the command
+     * with the longest prefix is chosen.
      * @param input the input to find the correct command for. Must be not null.
      * @return the command that fits to the input or null if no command fits to the input.
      */
     private Command findCommand(String input) {
-        return commands.stream()
-                .filter(command -> input.startsWith(command.getPrefix()))
-                .findFirst()
-                .orElse(null);
+        return commandsByPrefix.findLongestPrefixOf(input);
     }
 
     /**
@@ -127,4 +169,51 @@ public class TrainSimulationCLI {
     public TrainSimulation getSimulation() {
         return simulation;
     }
+
+    /**
+     * Records a command in the journal of this CLI before it is run. Prints an error if the command can not be
+     * recorded.
+     * @param input the command to record.
+     * @return whether the command may be run, which is the case if it was recorded or if there is no journal.
+     */
+    boolean recordCommand(String input) {
+        if (journal == null) {
+            return true;
+        }
+        try {
+            journal.record(input);
+            return true;
+        } catch (IOException e) {
+            Terminal.printError("the command can not be written to the journal.");
+            return false;
+        }
+    }
+
+    /**
+     * Returns the journal that records the commands that change the simulation.
+     * @return the journal of this CLI or null if the commands are not recorded.
+     */
+    public CommandJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Sets the journal that records the commands that change the simulation.
+     * @param journal the journal or null if the commands should not be recorded.
+     */
+    public void setJournal(CommandJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Replaces the simulation this CLI is working with, e.g. by a restored one. The threads of the old simulation are
+     * stopped.
+     * @param simulation the new simulation.
+     */
+    public void setSimulation(TrainSimulation simulation) {
+        if (this.simulation != simulation) {
+            this.simulation.shutdown();
+        }
+        this.simulation = simulation;
+    }
 }
@@ -26,6 +26,11 @@ public class AddSwitchCommand extends Command {
         super(cli, "add switch", 3);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         Point startPoint = ParsingUtility.parsePoint(args[0]);
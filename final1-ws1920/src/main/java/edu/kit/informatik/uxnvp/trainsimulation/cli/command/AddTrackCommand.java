@@ -24,6 +24,11 @@ public class AddTrackCommand extends Command {
         super(cli, "add track", 3);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         Point startPoint = ParsingUtility.parsePoint(args[0]);
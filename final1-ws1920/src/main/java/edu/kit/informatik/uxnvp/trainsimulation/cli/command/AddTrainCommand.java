@@ -25,6 +25,11 @@ public class AddTrainCommand extends Command {
         super(cli, "add train", 2);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         int trainId = ParsingUtility.parseInteger(args[0]);
@@ -55,7 +60,7 @@ public class AddTrainCommand extends Command {
             } else if (!train.hasBackCoupling()) {
                 // new trains always "have a back coupling" so we can not mistakenly create a train.
                 Terminal.printError("this train does not have a back coupling.");
-            } else if (!checkTrainSetCouplings(rollingStock, train.getLastRollingStock())) {
+            } else if (!TrainSet.canBeCoupled(rollingStock, train.getLastRollingStock())) {
                 Terminal.printError("train-sets can only be coupled with train-sets of the same class.");
             } else {
                 train.addRollingStock(rollingStock);
@@ -65,23 +70,6 @@ public class AddTrainCommand extends Command {
         }
     }
 
-    //todo
-    private boolean checkTrainSetCouplings(RollingStock stockOne, RollingStock stockTwo) {
-        // Note about instanceof usage: Using instanceof in this case is justified because we need to check whether
-        // certain rolling stocks are of the TrainSet type. Train-sets are a special case and trying to
-        // implement this in a polymorphic model (just to avoid using instanceof) would result in a another way to
-        // check the type of a rolling stock, i.e. by having a isTrainSet() or getRollingStockType() method which both
-        // are essentially just other approaches to an instanceof check
-        if ((stockOne instanceof TrainSet && !(stockTwo instanceof TrainSet))
-                || (!(stockOne instanceof TrainSet) && stockTwo instanceof TrainSet)) {
-            return false;
-        } else if (stockOne instanceof TrainSet) { // stockTwo must be a train-set as well because of the case above
-            return ((TrainSet) stockOne).getSeries().equals(((TrainSet) stockTwo).getSeries());
-        } else { // neither of the rolling stocks is a train-set
-            return true;
-        }
-    }
-
     /**
      * Helper method for accessing the fleet of the simulation.
      * @return the fleet of the simulation.
@@ -0,0 +1,40 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli.command;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.Command;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.CommandJournal;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
+
+import java.io.IOException;
+
+/**
+ * Handles the 'checkpoint' command which writes a snapshot of the simulation into the journal, so a recovery does
+ * not have to replay the commands before.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class CheckpointCommand extends Command {
+    /**
+     * Constructs a command instance of this command.
+     * @param cli the CLI instance this command should be registered in.
+     */
+    public CheckpointCommand(TrainSimulationCLI cli) {
+        super(cli, "checkpoint", 0);
+    }
+
+    @Override
+    public void execute(String[] args) throws SyntaxException {
+        CommandJournal journal = getCli().getJournal();
+        if (journal == null) {
+            Terminal.printError("the commands are not recorded in a journal.");
+        } else {
+            try {
+                journal.checkpoint();
+                Terminal.printLine("OK");
+            } catch (IOException e) {
+                Terminal.printError("the checkpoint can not be written.");
+            }
+        }
+    }
+}
@@ -23,6 +23,11 @@ public class CreateCoachCommand extends Command {
         super(cli, "create coach", 4);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         CoachType type = ParsingUtility.parseCoachType(args[0]);
@@ -23,6 +23,11 @@ public class CreateEngineCommand extends Command {
         super(cli, "create engine", 6);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         EngineType type = ParsingUtility.parseEngineType(args[0]);
@@ -22,6 +22,11 @@ public class CreateTrainSetCommand extends Command {
         super(cli, "create train-set", 5);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         String series = ParsingUtility.parseSeries(args[0]);
@@ -24,6 +24,11 @@ public class DeleteRollingStockCommand extends Command {
         super(cli, "delete rolling stock", 1);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         String idString = ParsingUtility.parseRollingStockId(args[0]);
@@ -21,6 +21,11 @@ public class DeleteTrackCommand extends Command {
         super(cli, "delete track", 1);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         int trackId = ParsingUtility.parseInteger(args[0]);
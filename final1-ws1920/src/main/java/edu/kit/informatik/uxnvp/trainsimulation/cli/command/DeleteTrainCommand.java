@@ -21,6 +21,11 @@ public class DeleteTrainCommand extends Command {
         super(cli, "delete train", 1);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         int trainId = ParsingUtility.parseInteger(args[0]);
@@ -7,8 +7,8 @@ import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
 import edu.kit.informatik.uxnvp.trainsimulation.model.train.Coach;
 import edu.kit.informatik.uxnvp.trainsimulation.util.CollectionsUtility;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Handles the 'list coaches' command which prints a list of all coaches in the simulation to the terminal.
@@ -26,7 +26,7 @@ public class ListCoachesCommand extends Command {
 
     @Override
     public void execute(String[] args) throws SyntaxException {
-        Set<Coach> coaches = getCli().getSimulation().getFleet().getAllCoaches();
+        Collection<Coach> coaches = getCli().getSimulation().getFleet().getAllCoaches();
         List<Coach> sortedCoaches = CollectionsUtility.toSortedList(coaches);
 
         if (sortedCoaches.isEmpty()) {
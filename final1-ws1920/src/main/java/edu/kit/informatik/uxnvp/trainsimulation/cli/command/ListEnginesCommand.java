@@ -7,8 +7,8 @@ import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
 import edu.kit.informatik.uxnvp.trainsimulation.model.train.Engine;
 import edu.kit.informatik.uxnvp.trainsimulation.util.CollectionsUtility;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Handles the 'list engines' command which prints a list of all engines to the terminal.
@@ -26,7 +26,7 @@ public class ListEnginesCommand extends Command {
 
     @Override
     public void execute(String[] args) throws SyntaxException {
-        Set<Engine> engines = getCli().getSimulation().getFleet().getAllEngines();
+        Collection<Engine> engines = getCli().getSimulation().getFleet().getAllEngines();
         List<Engine> sortedEngines = CollectionsUtility.toSortedList(engines);
 
         if (sortedEngines.isEmpty()) {
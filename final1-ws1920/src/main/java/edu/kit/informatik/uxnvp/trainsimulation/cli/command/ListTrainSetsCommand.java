@@ -7,8 +7,8 @@ import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
 import edu.kit.informatik.uxnvp.trainsimulation.model.train.TrainSet;
 import edu.kit.informatik.uxnvp.trainsimulation.util.CollectionsUtility;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Handles the 'list train-sets' command which prints a list of all train-sets in the simulation to the terminal.
@@ -26,7 +26,7 @@ public class ListTrainSetsCommand extends Command {
 
     @Override
     public void execute(String[] args) throws SyntaxException {
-        Set<TrainSet> trainSets = getCli().getSimulation().getFleet().getAllTrainSets();
+        Collection<TrainSet> trainSets = getCli().getSimulation().getFleet().getAllTrainSets();
         List<TrainSet> sortedTrainSets = CollectionsUtility.toSortedList(trainSets);
 
         if (sortedTrainSets.isEmpty()) {
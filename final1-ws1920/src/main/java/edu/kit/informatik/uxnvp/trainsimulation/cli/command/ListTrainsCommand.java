@@ -6,8 +6,8 @@ import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
 import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
 import edu.kit.informatik.uxnvp.trainsimulation.util.CollectionsUtility;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Handles the 'list trains' command which prints a list of all trains from the simulation to the terminal.
@@ -25,7 +25,7 @@ public class ListTrainsCommand extends Command {
 
     @Override
     public void execute(String[] args) {
-        Set<Train> trains = getCli().getSimulation().getFleet().getAllTrains();
+        Collection<Train> trains = getCli().getSimulation().getFleet().getAllTrains();
         List<Train> sortedTrains = CollectionsUtility.toSortedList(trains);
 
         if (sortedTrains.isEmpty()) {
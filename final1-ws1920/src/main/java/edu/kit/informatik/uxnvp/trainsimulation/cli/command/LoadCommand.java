@@ -0,0 +1,55 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli.command;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.Command;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
+import edu.kit.informatik.uxnvp.trainsimulation.controller.SimulationSnapshot;
+import edu.kit.informatik.uxnvp.trainsimulation.controller.SnapshotFormatException;
+import edu.kit.informatik.uxnvp.trainsimulation.controller.TrainSimulation;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+
+/**
+ * Handles the 'load &lt;path&gt;' command which replaces the simulation with a snapshot from a file. The options of
+ * the simulation are kept. The loaded simulation starts a new generation of the journal, as the snapshot file might
+ * change before the journal is replayed.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class LoadCommand extends Command {
+    /**
+     * Constructs a command instance of this command.
+     * @param cli the CLI instance this command should be registered in.
+     */
+    public LoadCommand(TrainSimulationCLI cli) {
+        super(cli, "load", 1);
+    }
+
+    @Override
+    public void execute(String[] args) throws SyntaxException {
+        TrainSimulation simulation;
+        try {
+            simulation = SimulationSnapshot.load(Paths.get(args[0]), getCli().getSimulation().getOptions());
+        } catch (SnapshotFormatException e) {
+            Terminal.printError(String.format("'%s' is not a valid snapshot: %s", args[0], e.getMessage()));
+            return;
+        } catch (IOException | InvalidPathException e) {
+            Terminal.printError(String.format("'%s' can not be read.", args[0]));
+            return;
+        }
+
+        getCli().setSimulation(simulation);
+        try {
+            if (getCli().getJournal() != null) {
+                getCli().getJournal().checkpoint();
+            }
+            Terminal.printLine("OK");
+        } catch (IOException e) {
+            // the snapshot was loaded, only the journal can not start a new generation with it
+            Terminal.printError("the snapshot was loaded, but the checkpoint of the journal can not be written.");
+        }
+    }
+}
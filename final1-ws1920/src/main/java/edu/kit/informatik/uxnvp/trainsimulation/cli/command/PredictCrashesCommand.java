@@ -0,0 +1,59 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli.command;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.Command;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
+import edu.kit.informatik.uxnvp.trainsimulation.util.ParsingUtility;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+
+/**
+ * Handles the 'predict crashes &lt;steps&gt;' command which prints the crashes that running 'step &lt;steps&gt;' would
+ * lead to and the sub-step each of them would occur in, without changing the simulation.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class PredictCrashesCommand extends Command {
+    /**
+     * Constructs a command instance of this command.
+     * @param cli the CLI instance this command should be registered in.
+     */
+    public PredictCrashesCommand(TrainSimulationCLI cli) {
+        super(cli, "predict crashes", 1);
+    }
+
+    @Override
+    public void execute(String[] args) throws SyntaxException {
+        int steps = ParsingUtility.parseInteger(args[0]);
+
+        if (getCli().getSimulation().getTrackNetwork().getAllTracks().stream()
+                .anyMatch(track -> track.getEndPoint() == null)) {
+            Terminal.printError("all switches must be set before running the simulation.");
+        } else {
+            SortedMap<Integer, Set<Set<Train>>> crashesByStep = getCli().getSimulation().predictCrashes(steps);
+            if (crashesByStep.isEmpty()) {
+                Terminal.printLine("OK");
+            }
+            for (Map.Entry<Integer, Set<Set<Train>>> entry : crashesByStep.entrySet()) {
+                List<List<Integer>> crashes = entry.getValue().stream()
+                        .map(crash -> crash.stream()
+                                .map(Train::getId)
+                                .sorted()
+                                .collect(Collectors.toList()))
+                        .sorted((crashA, crashB) -> Integer.compare(crashA.get(0), crashB.get(0)))
+                        .collect(Collectors.toList());
+                for (List<Integer> trainIds : crashes) {
+                    Terminal.printLine(String.format("Crash of train %s in step %d", trainIds.stream()
+                            .map(String::valueOf)
+                            .collect(Collectors.joining(",")), entry.getKey()));
+                }
+            }
+        }
+    }
+}
@@ -28,6 +28,11 @@ public class PutTrainCommand extends Command {
         super(cli, "put train", 6);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         // parse and validate arguments
@@ -61,7 +66,7 @@ public class PutTrainCommand extends Command {
         } else if (!getCli().getSimulation().fitsOnTrackPut(train, location)) {
             Terminal.printError("the train does not fit on the track.");
         } else {
-            train.setLocation(location);
+            getCli().getSimulation().putTrain(train, location);
             Terminal.printLine("OK");
         }
     }
@@ -0,0 +1,58 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli.command;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.Command;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
+import edu.kit.informatik.uxnvp.trainsimulation.controller.Route;
+import edu.kit.informatik.uxnvp.trainsimulation.controller.RoutePlanner;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.util.ParsingUtility;
+
+/**
+ * Handles the 'route &lt;point&gt; -&gt; &lt;point&gt;' command which prints the length of the shortest route between
+ * two points and the switch positions that are needed along it.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class RouteCommand extends Command {
+    /**
+     * Constructs a command instance of this command.
+     * @param cli the CLI instance this command should be registered in.
+     */
+    public RouteCommand(TrainSimulationCLI cli) {
+        super(cli, "route", 3);
+    }
+
+    @Override
+    public void execute(String[] args) throws SyntaxException {
+        Point start = ParsingUtility.parsePoint(args[0]);
+        ParsingUtility.checkIsArrow(args[1]);
+        Point target = ParsingUtility.parsePoint(args[2]);
+
+        RoutePlanner routePlanner = getCli().getSimulation().getTrackNetwork().getRoutePlanner();
+        if (!routePlanner.isOnRails(start)) {
+            Terminal.printError(String.format("there is no track at %s.", start));
+        } else if (!routePlanner.isOnRails(target)) {
+            Terminal.printError(String.format("there is no track at %s.", target));
+        } else {
+            printRoute(routePlanner.findRoute(start, target));
+        }
+    }
+
+    /**
+     * Prints the length of a route and the switch positions needed along it, one 'set switch' command per line.
+     * @param route the route to print or null if there is no route.
+     */
+    static void printRoute(Route route) {
+        if (route == null) {
+            Terminal.printError("there is no route to this point.");
+        } else {
+            Terminal.printLine(String.valueOf(route.getLength()));
+            for (Route.SwitchPosition switchPosition : route.getSwitchPositions()) {
+                Terminal.printLine(String.format("set switch %s position %s", switchPosition.getSwitch().getId(),
+                        switchPosition.getEndPoint()));
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli.command;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.Command;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
+import edu.kit.informatik.uxnvp.trainsimulation.controller.RoutePlanner;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
+import edu.kit.informatik.uxnvp.trainsimulation.util.ParsingUtility;
+
+/**
+ * Handles the 'route train &lt;trainId&gt; -&gt; &lt;point&gt;' command which prints the length of the shortest route
+ * that a train on the rails can take to a point without reversing and the switch positions that are needed along it.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class RouteTrainCommand extends Command {
+    /**
+     * Constructs a command instance of this command.
+     * @param cli the CLI instance this command should be registered in.
+     */
+    public RouteTrainCommand(TrainSimulationCLI cli) {
+        super(cli, "route train", 3);
+    }
+
+    @Override
+    public void execute(String[] args) throws SyntaxException {
+        int trainId = ParsingUtility.parseInteger(args[0]);
+        ParsingUtility.checkIsArrow(args[1]);
+        Point target = ParsingUtility.parsePoint(args[2]);
+
+        Train train = getCli().getSimulation().getFleet().getTrainById(trainId);
+        RoutePlanner routePlanner = getCli().getSimulation().getTrackNetwork().getRoutePlanner();
+        if (train == null) {
+            Terminal.printError(String.format("'%s' is not a registered train id.", trainId));
+        } else if (train.getCurrentLocation() == null) {
+            Terminal.printError("the train is not on the rails.");
+        } else if (!routePlanner.isOnRails(target)) {
+            Terminal.printError(String.format("there is no track at %s.", target));
+        } else {
+            RouteCommand.printRoute(routePlanner.findRoute(train.getCurrentLocation(), target));
+        }
+    }
+}
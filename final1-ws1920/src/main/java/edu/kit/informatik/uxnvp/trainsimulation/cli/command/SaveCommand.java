@@ -0,0 +1,36 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli.command;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.Command;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
+import edu.kit.informatik.uxnvp.trainsimulation.controller.SimulationSnapshot;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+
+/**
+ * Handles the 'save &lt;path&gt;' command which writes a snapshot of the simulation into a file.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class SaveCommand extends Command {
+    /**
+     * Constructs a command instance of this command.
+     * @param cli the CLI instance this command should be registered in.
+     */
+    public SaveCommand(TrainSimulationCLI cli) {
+        super(cli, "save", 1);
+    }
+
+    @Override
+    public void execute(String[] args) throws SyntaxException {
+        try {
+            SimulationSnapshot.save(getCli().getSimulation(), Paths.get(args[0]));
+            Terminal.printLine("OK");
+        } catch (IOException | InvalidPathException e) {
+            Terminal.printError(String.format("'%s' can not be written.", args[0]));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli.command;
+
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.Command;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
+import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
+import edu.kit.informatik.uxnvp.trainsimulation.controller.SimulationOptions;
+import edu.kit.informatik.uxnvp.trainsimulation.util.ParsingUtility;
+
+/**
+ * Handles the 'set option &lt;name&gt; &lt;value&gt;' command which changes an option of the simulation.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class SetOptionCommand extends Command {
+    /**
+     * Constructs a command instance of this command.
+     * @param cli the CLI instance this command should be registered in.
+     */
+    public SetOptionCommand(TrainSimulationCLI cli) {
+        super(cli, "set option", 2);
+    }
+
+    @Override
+    public void execute(String[] args) throws SyntaxException {
+        SimulationOptions options = getCli().getSimulation().getOptions();
+        if ("rail-graph".equals(args[0])) {
+            options.setRailGraphEnabled(ParsingUtility.parseBoolean(args[1]));
+            Terminal.printLine("OK");
+        } else if ("collision-grid".equals(args[0])) {
+            options.setCollisionGridEnabled(ParsingUtility.parseBoolean(args[1]));
+            Terminal.printLine("OK");
+        } else if ("fast-forward".equals(args[0])) {
+            options.setFastForwardEnabled(ParsingUtility.parseBoolean(args[1]));
+            Terminal.printLine("OK");
+        } else if ("event-driven".equals(args[0])) {
+            options.setEventDrivenEnabled(ParsingUtility.parseBoolean(args[1]));
+            Terminal.printLine("OK");
+        } else if ("parallelism".equals(args[0])) {
+            int parallelism = ParsingUtility.parseInteger(args[1]);
+            if (parallelism <= 0) {
+                Terminal.printError("the parallelism must be positive.");
+            } else {
+                options.setParallelism(parallelism);
+                Terminal.printLine("OK");
+            }
+        } else {
+            Terminal.printError(String.format("'%s' is not a known option.", args[0]));
+        }
+    }
+}
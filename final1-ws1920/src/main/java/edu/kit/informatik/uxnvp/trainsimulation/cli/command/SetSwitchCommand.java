@@ -23,6 +23,11 @@ public class SetSwitchCommand extends Command {
         super(cli, "set switch", 3);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         int trackId = ParsingUtility.parseInteger(args[0]);
@@ -5,6 +5,7 @@ import edu.kit.informatik.uxnvp.trainsimulation.util.ParsingUtility;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.Command;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.TrainSimulationCLI;
+import edu.kit.informatik.uxnvp.trainsimulation.model.AsciiImage;
 import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
 
 /**
@@ -30,7 +31,15 @@ public class ShowTrainCommand extends Command {
         if (train == null) {
             Terminal.printError(String.format("'%s' is not a registered train id.", trainId));
         } else {
-            Terminal.printLine(train.getGraphicalRepresentation().toString());
+            AsciiImage image = train.getGraphicalRepresentation();
+            if (image.getHeight() == 0) {
+                // an empty image is still printed as an empty line
+                Terminal.printLine("");
+            }
+            // print line by line instead of joining all lines of a long train into one string
+            for (String line : image.getLines()) {
+                Terminal.printLine(line);
+            }
         }
     }
 }
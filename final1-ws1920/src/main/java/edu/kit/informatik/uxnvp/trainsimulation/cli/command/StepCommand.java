@@ -26,6 +26,11 @@ public class StepCommand extends Command {
         super(cli, "step", 1);
     }
 
+    @Override
+    public boolean changesSimulation() {
+        return true;
+    }
+
     @Override
     public void execute(String[] args) throws SyntaxException {
         int speed = ParsingUtility.parseInteger(args[0]);
@@ -0,0 +1,88 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
+import edu.kit.informatik.uxnvp.trainsimulation.util.LongIntHashMap;
+import edu.kit.informatik.uxnvp.trainsimulation.util.UnionFind;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A collision engine that finds crashes with the same rules as the reference implementation in
+ * {@link TrainSimulation}: two trains crash if they occupy a common point or if they occupy the middle of the same
+ * track. Occupied tracks are stored in a primitive hash map from track ids to train ids, common points are found by an
+ * {@link OverlapSweep} over the runs of the trains, and trains that crash are linked with a union-find over their
+ * ids. The cost depends on the amount of tracks the trains span, not on their lengths. All structures are reused for
+ * every sub-step.<br/>
+ * The grid only finds the trains that crash. Which crash a train belongs to depends on the order the reference
+ * implementation finds the crashes in, so the crashing trains are grouped by
+ * {@link TrainSimulation#findCrashes(java.util.Collection, java.util.function.Function)}.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class CollisionGrid {
+    private final OverlapSweep overlapSweep;
+    private final LongIntHashMap trainsByTrack;
+    private final UnionFind crashGroups;
+    private final List<Train> trains;
+
+    /**
+     * Constructs an empty collision grid.
+     */
+    CollisionGrid() {
+        this.overlapSweep = new OverlapSweep();
+        this.trainsByTrack = new LongIntHashMap();
+        this.crashGroups = new UnionFind();
+        this.trains = new ArrayList<>();
+    }
+
+    /**
+     * Removes all trains from this grid.
+     * @param maxTrainId the highest id of the trains that will be added.
+     */
+    void reset(int maxTrainId) {
+        overlapSweep.clear();
+        trainsByTrack.clear();
+        crashGroups.reset(maxTrainId + 1);
+        trains.clear();
+    }
+
+    /**
+     * Adds a train to this grid and records crashes over tracks with the trains that were added before. Crashes over
+     * points are found when the crashes are collected.
+     * @param train the train to add.
+     * @param occupancy the locations occupied by the train.
+     */
+    void addTrain(Train train, TrainOccupancy occupancy) {
+        int trainId = train.getId();
+        trains.add(train);
+        overlapSweep.addOccupancy(occupancy, trainId);
+        for (int run = 0; run < occupancy.getRunAmount(); run++) {
+            // track occupation
+            Track track = occupancy.getRunInteriorTrack(run);
+            if (track != null) {
+                int otherTrainId = trainsByTrack.putIfAbsent(track.getId(), trainId);
+                if (otherTrainId != LongIntHashMap.NO_VALUE && otherTrainId != trainId) {
+                    crashGroups.union(trainId, otherTrainId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the trains added to this grid that crash into another train.
+     * @return a new list of the crashing trains in the order they were added.
+     */
+    List<Train> getCrashingTrains() {
+        // point occupation
+        overlapSweep.link(crashGroups);
+        List<Train> crashingTrains = new ArrayList<>();
+        for (Train train : trains) {
+            if (crashGroups.getSetSize(train.getId()) > 1) {
+                crashingTrains.add(train);
+            }
+        }
+        return crashingTrains;
+    }
+}
@@ -0,0 +1,559 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.PackedPoint;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
+import edu.kit.informatik.uxnvp.trainsimulation.util.LongIntHashMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Runs simulation steps as a discrete-event simulation on a regular {@link RailGraph}. The results are the same as
+ * when all trains are moved sub-step by sub-step in {@link TrainSimulation}.<br/>
+ * In a regular graph, every point is either the end of one or two tracks or in the middle of exactly one track, so two
+ * trains crash exactly if they hold a common resource: an end point or the middle of a track. While driving, a train
+ * follows a fixed path, and every location on it has a coordinate: the moving end (the head, or the tail when driving
+ * backwards) is at coordinate t after sub-step t and the other end trails it by the length of the train. The path is
+ * split into segments of one resource each, so the sub-steps at which a train acquires or releases a resource are
+ * known in advance.<br/>
+ * The events of the trains are kept in a priority queue: acquiring the next segment when the moving end enters a new
+ * track or reaches an end point, releasing the last segment when the other end leaves it and leaving the rails at a
+ * dead end (or at a location the train occupies itself when driving backwards, like
+ * {@link TrainOccupancy#fitsAfterMovingBackward(TrainLocation)}). Releasing a resource never leads to a crash, so
+ * crashes are only looked for when a resource is acquired. Every train has at most one pending event of every kind,
+ * so moving to the next event takes logarithmic time, no matter how far apart the events are. All structures are
+ * reused for every step.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class EventSimulator {
+    /*
+     * The kinds of events, in the order they are handled within a sub-step: trains that leave the rails do not take
+     * part in the crash check, and the resources released in a sub-step can be acquired by other trains in the same
+     * sub-step.
+     */
+    private static final int DERAIL = 0;
+    private static final int RELEASE = 1;
+    private static final int ACQUIRE = 2;
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final LongIntHashMap ownersByTrack;
+    private final LongIntHashMap holdsByTrack;
+    private final LongIntHashMap ownersByPoint;
+    private final LongIntHashMap holdsByPoint;
+    /**
+     * The pending events as arrays of the sub-step, the kind of the event and the index of the train.
+     */
+    private final PriorityQueue<long[]> events;
+    /**
+     * The trains that acquired a resource held by another train in the current sub-step and these other trains.
+     */
+    private final List<Integer> crashedTrains;
+
+    private RailGraph railGraph;
+    private boolean backwards;
+    private long steps;
+    private TrainState[] states;
+
+    /**
+     * Constructs an event simulator.
+     */
+    EventSimulator() {
+        this.ownersByTrack = new LongIntHashMap();
+        this.holdsByTrack = new LongIntHashMap();
+        this.ownersByPoint = new LongIntHashMap();
+        this.holdsByPoint = new LongIntHashMap();
+        this.events = new PriorityQueue<>(Comparator.<long[]>comparingLong(event -> event[0])
+                .thenComparingLong(event -> event[1]));
+        this.crashedTrains = new ArrayList<>();
+    }
+
+    /**
+     * Runs a simulation step. The trains are not changed.
+     * @param railGraph the rail graph of the network. Must be regular.
+     * @param trains the trains on the rails, in the order of the trains on the rails of the fleet, which decides how
+     * the crashing trains are grouped into crashes.
+     * @param occupancies the locations occupied by every train.
+     * @param backwards whether the trains drive backwards.
+     * @param steps the amount of sub-steps to run. Must be positive.
+     * @param results receives the locations occupied by every train after the step or null for the trains that left
+     * the rails.
+     * @return the crashes by the sub-step (starting at 1) they occurred in or null if a train is not on the rail
+     * graph. A crash is represented by a set of trains involved in the crash.
+     */
+    SortedMap<Integer, Set<Set<Train>>> run(RailGraph railGraph, List<Train> trains,
+                                            List<TrainOccupancy> occupancies, boolean backwards, int steps,
+                                            TrainOccupancy[] results) {
+        this.railGraph = railGraph;
+        this.backwards = backwards;
+        this.steps = steps;
+        this.states = new TrainState[trains.size()];
+        for (int index = 0; index < trains.size(); index++) {
+            TrainOccupancy occupancy = occupancies.get(index);
+            RailCursor cursor = railGraph.locate(backwards ? occupancy.getTail() : occupancy.getHead());
+            if (cursor == null) {
+                return null;
+            }
+            states[index] = new TrainState(cursor, occupancy.size() - 1);
+            addInitialSegments(states[index], occupancy);
+        }
+
+        ownersByTrack.clear();
+        holdsByTrack.clear();
+        ownersByPoint.clear();
+        holdsByPoint.clear();
+        events.clear();
+        crashedTrains.clear();
+        for (int index = 0; index < trains.size(); index++) {
+            // all occupied resources are acquired in the first sub-step, so crashes that exist already are found
+            extendPath(index);
+            scheduleAcquire(index, 1);
+        }
+
+        SortedMap<Integer, Set<Set<Train>>> crashesBySubStep = new TreeMap<>();
+        while (!events.isEmpty() && events.peek()[0] <= steps) {
+            long subStep = events.peek()[0];
+            Set<Set<Train>> crashes = new HashSet<>();
+            while (!events.isEmpty() && events.peek()[0] == subStep) {
+                long[] event = events.poll();
+                int index = (int) event[2];
+                TrainState state = states[index];
+                if (!state.onRails) {
+                    continue;
+                }
+                if (event[1] == DERAIL && state.derailTime == subStep) {
+                    removeFromRails(state);
+                    crashes.add(new HashSet<>(Collections.singletonList(trains.get(index))));
+                } else if (event[1] == RELEASE && state.nextReleaseTime == subStep) {
+                    release(index, subStep);
+                } else if (event[1] == ACQUIRE && state.nextAcquireTime == subStep) {
+                    acquire(index, subStep);
+                }
+            }
+
+            if (!crashedTrains.isEmpty()) {
+                crashes.addAll(groupCrashedTrains(trains, subStep));
+            }
+            if (!crashes.isEmpty()) {
+                crashesBySubStep.put((int) subStep, crashes);
+            }
+        }
+
+        for (int index = 0; index < trains.size(); index++) {
+            results[index] = states[index].onRails ? buildOccupancy(states[index], steps) : null;
+        }
+        this.states = null;
+        return crashesBySubStep;
+    }
+
+    /**
+     * Groups the trains that crashed in a sub-step into crashes like the reference implementation and removes them from
+     * the rails.
+     * @param trains the trains on the rails, in the order of the trains on the rails of the fleet.
+     * @param subStep the current sub-step.
+     * @return the crashes of the sub-step, without the trains that left the rails.
+     */
+    private Set<Set<Train>> groupCrashedTrains(List<Train> trains, long subStep) {
+        Collections.sort(crashedTrains);
+        List<Train> crashingTrains = new ArrayList<>();
+        Map<Train, TrainOccupancy> crashingOccupancies = new HashMap<>();
+        for (int index : crashedTrains) {
+            if (states[index].onRails) {
+                crashingTrains.add(trains.get(index));
+                crashingOccupancies.put(trains.get(index), buildOccupancy(states[index], subStep));
+                removeFromRails(states[index]);
+            }
+        }
+        crashedTrains.clear();
+        return TrainSimulation.findCrashes(crashingTrains, crashingOccupancies::get);
+    }
+
+    /**
+     * Splits the locations occupied by a train into segments. The occupancy is ordered from the head to the tail, so
+     * its coordinates decrease when driving forward and increase when driving backwards.
+     * @param state the state of the train.
+     * @param occupancy the locations occupied by the train.
+     */
+    private void addInitialSegments(TrainState state, TrainOccupancy occupancy) {
+        int index = 0;
+        for (int run = 0; run < occupancy.getRunAmount(); run++) {
+            int length = occupancy.getRunLength(run);
+            Direction direction = occupancy.getRunDirection(run);
+            Track track = occupancy.getRunInteriorTrack(run);
+            // the middle of a track is one segment, but every end point is a resource of its own
+            int pointsPerSegment = track == null ? 1 : length;
+            for (int i = 0; i < length; i += pointsPerSegment) {
+                int lastIndex = index + i + pointsPerSegment - 1;
+                Segment segment;
+                if (backwards) {
+                    segment = new Segment(index + i - state.length, lastIndex - state.length,
+                            occupancy.getPackedPoint(run, i), direction, track);
+                    state.ahead.addLast(segment);
+                } else {
+                    segment = new Segment(-lastIndex, -(index + i),
+                            occupancy.getPackedPoint(run, i + pointsPerSegment - 1), direction, track);
+                    state.ahead.addFirst(segment);
+                }
+            }
+            index += length;
+        }
+    }
+
+    /**
+     * Adds the next segment ahead of the moving end of a train to its path or schedules leaving the rails if the
+     * moving end can not move any further.
+     * @param index the index of the train.
+     */
+    private void extendPath(int index) {
+        TrainState state = states[index];
+        long first = state.frontier + 1;
+        if (state.derailTime != NEVER || first > steps) {
+            return;
+        }
+        RailCursor cursor = state.cursor;
+        boolean moved = backwards ? railGraph.stepBackward(cursor) : railGraph.stepForward(cursor);
+        if (!moved) {
+            scheduleDerail(index, first);
+            return;
+        }
+        TrainLocation location = cursor.toLocation();
+        Track track = cursor.getInteriorTrack();
+        long skipped = 0;
+        if (track != null) {
+            // the middle of the track is passed in one go
+            skipped = backwards ? railGraph.skipBackward(cursor, NEVER) : railGraph.skipForward(cursor, NEVER);
+        }
+        Segment segment = new Segment(first, first + skipped, PackedPoint.of(location.getPoint()),
+                location.getDirection(), track);
+        state.frontier = segment.last;
+        if (backwards) {
+            long collision = findSelfCollision(state, segment);
+            if (collision != NEVER) {
+                scheduleDerail(index, collision);
+            }
+        }
+        state.ahead.addLast(segment);
+    }
+
+    /**
+     * Finds the first sub-step at which the tail of a train driving backwards enters a segment at a point that the
+     * train occupies itself. Like in {@link TrainOccupancy#fitsAfterMovingBackward(TrainLocation)}, the new head is not
+     * checked, so the point has to be occupied at least two locations behind the new head.
+     * @param state the state of the train.
+     * @param segment the new segment at the tail of the train.
+     * @return the first sub-step at which the train occupies a point twice or {@link #NEVER} if it does not.
+     */
+    private long findSelfCollision(TrainState state, Segment segment) {
+        long collision = NEVER;
+        for (ArrayDeque<Segment> segments : Arrays.asList(state.held, state.ahead)) {
+            for (Segment other : segments) {
+                if (segment.track == null && other.track == null && segment.getKey() == other.getKey()) {
+                    if (other.first >= segment.first + 1 - state.length) {
+                        collision = Math.min(collision, segment.first);
+                    }
+                } else if (segment.track != null && segment.track == other.track) {
+                    collision = Math.min(collision, findSelfCollision(other, segment, state.length));
+                }
+            }
+        }
+        return collision;
+    }
+
+    /**
+     * Finds the first sub-step at which the tail of a train reaches a point of an earlier segment in the middle of
+     * the same track, while that point is at least two locations behind the head. The coordinate c of the earlier
+     * segment at the point the tail reaches at sub-step t is linear in t, so the sub-steps satisfying all bounds form
+     * an interval.
+     * @param earlier the earlier segment.
+     * @param segment the new segment at the tail.
+     * @param length the length of the train.
+     * @return the first sub-step at which the train occupies a point twice or {@link #NEVER} if it does not.
+     */
+    private long findSelfCollision(Segment earlier, Segment segment, long length) {
+        long earlierStep = earlier.getAxisStep(backwards);
+        long step = segment.getAxisStep(backwards);
+        // c = offset + earlierStep * step * t
+        long offset = earlier.first + earlierStep * (segment.getAxisPosition() - step * segment.first
+                - earlier.getAxisPosition());
+        long low = segment.first;
+        long high = segment.last;
+        if (earlierStep == step) {
+            // the distance t - c is the same for all sub-steps and has to be between 1 and length - 1
+            if (offset < 1 - length || offset > -1) {
+                return NEVER;
+            }
+            low = Math.max(low, earlier.first - offset);
+            high = Math.min(high, earlier.last - offset);
+        } else {
+            // c = offset - t has to be between earlier.first and earlier.last, t + 1 - length and t - 1
+            low = Math.max(low, Math.max(offset - earlier.last, -Math.floorDiv(-(offset + 1), 2)));
+            high = Math.min(high, Math.min(offset - earlier.first, Math.floorDiv(offset - 1 + length, 2)));
+        }
+        return low <= high ? low : NEVER;
+    }
+
+    /**
+     * Acquires all segments that the moving end of a train reached.
+     * @param index the index of the train.
+     * @param subStep the current sub-step.
+     */
+    private void acquire(int index, long subStep) {
+        TrainState state = states[index];
+        state.nextAcquireTime = NEVER;
+        while (!state.ahead.isEmpty() && state.ahead.peekFirst().first <= subStep) {
+            Segment segment = state.ahead.pollFirst();
+            if (segment.last >= subStep - state.length) {
+                hold(index, segment);
+                state.held.addLast(segment);
+            }
+        }
+        if (state.ahead.isEmpty()) {
+            extendPath(index);
+        }
+        if (!state.ahead.isEmpty()) {
+            scheduleAcquire(index, state.ahead.peekFirst().first);
+        }
+        scheduleRelease(index);
+    }
+
+    /**
+     * Records that a train holds the resource of a segment. If another train holds the resource, both trains crash.
+     * @param index the index of the train.
+     * @param segment the segment.
+     */
+    private void hold(int index, Segment segment) {
+        LongIntHashMap owners = segment.track == null ? ownersByPoint : ownersByTrack;
+        LongIntHashMap holds = segment.track == null ? holdsByPoint : holdsByTrack;
+        long key = segment.getKey();
+        int holdAmount = holds.get(key);
+        if (holdAmount == LongIntHashMap.NO_VALUE || holdAmount == 0) {
+            owners.put(key, index);
+            holds.put(key, 1);
+            segment.recorded = true;
+        } else if (owners.get(key) == index) {
+            // a train does not crash into itself
+            holds.addTo(key, 1);
+            segment.recorded = true;
+        } else {
+            // the train crashes, so it is not recorded as a holder
+            crashedTrains.add(index);
+            crashedTrains.add(owners.get(key));
+        }
+    }
+
+    /**
+     * Releases all segments that the trailing end of a train left.
+     * @param index the index of the train.
+     * @param subStep the current sub-step.
+     */
+    private void release(int index, long subStep) {
+        TrainState state = states[index];
+        state.nextReleaseTime = NEVER;
+        while (!state.held.isEmpty() && state.held.peekFirst().last < subStep - state.length) {
+            unhold(state.held.pollFirst());
+        }
+        scheduleRelease(index);
+    }
+
+    private void unhold(Segment segment) {
+        if (segment.recorded) {
+            (segment.track == null ? holdsByPoint : holdsByTrack).addTo(segment.getKey(), -1);
+        }
+    }
+
+    /**
+     * Removes a train from the rails and releases all of its segments.
+     * @param state the state of the train.
+     */
+    private void removeFromRails(TrainState state) {
+        state.onRails = false;
+        for (Segment segment : state.held) {
+            unhold(segment);
+        }
+        state.held.clear();
+        state.ahead.clear();
+    }
+
+    private void scheduleAcquire(int index, long subStep) {
+        states[index].nextAcquireTime = subStep;
+        schedule(subStep, ACQUIRE, index);
+    }
+
+    private void scheduleRelease(int index) {
+        TrainState state = states[index];
+        long subStep = state.held.isEmpty() ? NEVER : state.held.peekFirst().last + state.length + 1;
+        if (subStep != state.nextReleaseTime) {
+            state.nextReleaseTime = subStep;
+            schedule(subStep, RELEASE, index);
+        }
+    }
+
+    private void scheduleDerail(int index, long subStep) {
+        states[index].derailTime = subStep;
+        schedule(subStep, DERAIL, index);
+    }
+
+    private void schedule(long subStep, int kind, int index) {
+        // events after the step are never handled
+        if (subStep <= steps) {
+            events.add(new long[] {subStep, kind, index});
+        }
+    }
+
+    /**
+     * Builds the locations occupied by a train after a sub-step from the segments it holds.
+     * @param state the state of the train.
+     * @param subStep the sub-step.
+     * @return the locations occupied by the train.
+     */
+    private TrainOccupancy buildOccupancy(TrainState state, long subStep) {
+        long low = subStep - state.length;
+        TrainOccupancy occupancy = new TrainOccupancy();
+        // the occupancy starts at the head, which trails when driving backwards
+        Iterator<Segment> iterator = backwards ? state.held.iterator() : state.held.descendingIterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            long first = Math.max(segment.first, low);
+            long last = Math.min(segment.last, subStep);
+            if (first <= last) {
+                occupancy.addTail(segment.getLocation(backwards ? first : last, backwards), segment.track,
+                        Math.toIntExact(last - first + 1));
+            }
+        }
+        return occupancy;
+    }
+
+    /**
+     * The state of a train during a step.
+     * @author Max Schweikart
+     * @version 1.0
+     */
+    private static final class TrainState {
+        /**
+         * A cursor at the last location of the path found so far.
+         */
+        private final RailCursor cursor;
+        private final long length;
+        /**
+         * The segments of the path that the train holds, from the trailing end to the moving end.
+         */
+        private final ArrayDeque<Segment> held;
+        /**
+         * The segments of the path that the train has not acquired yet, in the order they will be acquired.
+         */
+        private final ArrayDeque<Segment> ahead;
+        /**
+         * The coordinate of the cursor.
+         */
+        private long frontier;
+        private long derailTime;
+        private long nextAcquireTime;
+        private long nextReleaseTime;
+        private boolean onRails;
+
+        private TrainState(RailCursor cursor, long length) {
+            this.cursor = cursor;
+            this.length = length;
+            this.held = new ArrayDeque<>();
+            this.ahead = new ArrayDeque<>();
+            this.frontier = 0;
+            this.derailTime = NEVER;
+            this.nextAcquireTime = NEVER;
+            this.nextReleaseTime = NEVER;
+            this.onRails = true;
+        }
+    }
+
+    /**
+     * A straight part of the path of a train that covers one resource: either a single end point or locations in the
+     * middle of one track.
+     * @author Max Schweikart
+     * @version 1.0
+     */
+    private static final class Segment {
+        private final long first;
+        private final long last;
+        /**
+         * The {@link PackedPoint packed point} of the location at the first coordinate.
+         */
+        private final long firstPoint;
+        private final Direction direction;
+        private final Track track;
+        /**
+         * Whether the train is recorded as a holder of the resource. Trains that crash when acquiring a segment are
+         * not.
+         */
+        private boolean recorded;
+
+        /**
+         * Constructs a new segment.
+         * @param first the first coordinate of the segment.
+         * @param last the last coordinate of the segment.
+         * @param firstPoint the packed point at the first coordinate.
+         * @param direction the direction of all locations of the segment.
+         * @param track the track the segment is in the middle of or null if the segment is an end point.
+         */
+        private Segment(long first, long last, long firstPoint, Direction direction, Track track) {
+            this.first = first;
+            this.last = last;
+            this.firstPoint = firstPoint;
+            this.direction = direction;
+            this.track = track;
+        }
+
+        /**
+         * Returns the key of the resource of this segment in the maps of the holders.
+         * @return the id of the track or the packed point.
+         */
+        private long getKey() {
+            return track == null ? firstPoint : track.getId();
+        }
+
+        /**
+         * Returns the position of the first point of this segment along the axis of its direction.
+         * @return the x-coordinate of the point for horizontal segments and the y-coordinate otherwise.
+         */
+        private long getAxisPosition() {
+            return direction.getDx() != 0 ? PackedPoint.getX(firstPoint) : PackedPoint.getY(firstPoint);
+        }
+
+        /**
+         * Returns the change of the {@link #getAxisPosition() axis position} from one coordinate to the next one.
+         * @param backwards whether the coordinates increase against the direction of the locations.
+         * @return 1 or -1.
+         */
+        private long getAxisStep(boolean backwards) {
+            int step = direction.getDx() != 0 ? direction.getDx() : direction.getDy();
+            return backwards ? -step : step;
+        }
+
+        /**
+         * Finds the location at a coordinate of this segment.
+         * @param coordinate the coordinate.
+         * @param backwards whether the coordinates increase against the direction of the locations.
+         * @return the location at the coordinate.
+         */
+        private TrainLocation getLocation(long coordinate, boolean backwards) {
+            long distance = backwards ? first - coordinate : coordinate - first;
+            return new TrainLocation(new Point(
+                    Math.toIntExact(PackedPoint.getX(firstPoint) + distance * direction.getDx()),
+                    Math.toIntExact(PackedPoint.getY(firstPoint) + distance * direction.getDy())), direction);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.PackedPoint;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import edu.kit.informatik.uxnvp.trainsimulation.util.LongIntHashMap;
+
+import java.util.List;
+
+/**
+ * Finds the amount of sub-steps that all trains can drive without any chance of crashing. While driving, a train only
+ * touches the locations it occupies now and the locations ahead of it (or behind it when driving backwards). As long
+ * as these regions of different trains neither share a point nor the middle of a track, the crash check of every
+ * sub-step would find nothing, so it can be skipped. The locations ahead are found on a regular {@link RailGraph}.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class FastForwardPlanner {
+    /**
+     * The distance of locations that are occupied at the moment.
+     */
+    private static final int OCCUPIED = 0;
+
+    private final LongIntHashMap ownersByPoint;
+    private final LongIntHashMap distancesByPoint;
+    private final LongIntHashMap ownersByTrack;
+    private final LongIntHashMap distancesByTrack;
+
+    /**
+     * Constructs a planner. All structures are reused for every plan.
+     */
+    FastForwardPlanner() {
+        this.ownersByPoint = new LongIntHashMap();
+        this.distancesByPoint = new LongIntHashMap();
+        this.ownersByTrack = new LongIntHashMap();
+        this.distancesByTrack = new LongIntHashMap();
+    }
+
+    /**
+     * Finds the amount of sub-steps that can be driven without checking for crashes.
+     * @param railGraph the rail graph of the network. Must be regular.
+     * @param occupancies the locations occupied by every train on the rails.
+     * @param backwards whether the trains drive backwards.
+     * @param maxSteps the maximum amount of sub-steps to look ahead.
+     * @return the amount of sub-steps that can be driven without any crash, at most maxSteps.
+     */
+    int findSafeSteps(RailGraph railGraph, List<TrainOccupancy> occupancies, boolean backwards, int maxSteps) {
+        ownersByPoint.clear();
+        distancesByPoint.clear();
+        ownersByTrack.clear();
+        distancesByTrack.clear();
+
+        for (int owner = 0; owner < occupancies.size(); owner++) {
+            TrainOccupancy occupancy = occupancies.get(owner);
+            for (int run = 0; run < occupancy.getRunAmount(); run++) {
+                for (int i = 0; i < occupancy.getRunLength(run); i++) {
+                    if (!occupy(ownersByPoint, distancesByPoint, occupancy.getPackedPoint(run, i), owner)) {
+                        return 0;
+                    }
+                }
+                Track track = occupancy.getRunInteriorTrack(run);
+                if (track != null && !occupy(ownersByTrack, distancesByTrack, track.getId(), owner)) {
+                    return 0;
+                }
+            }
+        }
+
+        int safeSteps = maxSteps;
+        for (int owner = 0; owner < occupancies.size() && safeSteps > 0; owner++) {
+            TrainOccupancy occupancy = occupancies.get(owner);
+            RailCursor cursor = railGraph.locate(backwards ? occupancy.getTail() : occupancy.getHead());
+            if (cursor == null) {
+                return 0;
+            }
+            for (int distance = 1; distance <= safeSteps; distance++) {
+                boolean stepped = backwards ? railGraph.stepBackward(cursor) : railGraph.stepForward(cursor);
+                if (!stepped) {
+                    // the train leaves the rails after the previous sub-step
+                    safeSteps = distance - 1;
+                    break;
+                }
+                int conflict = reach(ownersByPoint, distancesByPoint, PackedPoint.of(cursor.getX(), cursor.getY()),
+                        owner, distance, false);
+                Track track = cursor.getInteriorTrack();
+                if (track != null) {
+                    conflict = Math.min(conflict, reach(ownersByTrack, distancesByTrack, track.getId(), owner,
+                            distance, true));
+                }
+                safeSteps = Math.min(safeSteps, conflict - 1);
+            }
+        }
+        return safeSteps;
+    }
+
+    /**
+     * Records a location that is occupied at the moment.
+     * @return false if the location is already occupied by another train.
+     */
+    private static boolean occupy(LongIntHashMap owners, LongIntHashMap distances, long key, int owner) {
+        int otherOwner = owners.putIfAbsent(key, owner);
+        if (otherOwner == LongIntHashMap.NO_VALUE) {
+            distances.putIfAbsent(key, OCCUPIED);
+            return true;
+        }
+        return otherOwner == owner;
+    }
+
+    /**
+     * Records that a train reaches a location after a distance and finds the first sub-step that might lead to a
+     * crash at the location. Only the train that reaches the location first is kept, as every later train meets it
+     * there no later than any other train.
+     * @param sharedBySelf whether the train may reach the location again without crashing into itself.
+     * @return the first sub-step that might lead to a crash or {@link Integer#MAX_VALUE} if there is none.
+     */
+    private static int reach(LongIntHashMap owners, LongIntHashMap distances, long key, int owner, int distance,
+                             boolean sharedBySelf) {
+        int otherOwner = owners.putIfAbsent(key, owner);
+        if (otherOwner == LongIntHashMap.NO_VALUE) {
+            distances.putIfAbsent(key, distance);
+            return Integer.MAX_VALUE;
+        } else if (otherOwner == owner) {
+            return sharedBySelf ? Integer.MAX_VALUE : distance;
+        }
+        int otherDistance = distances.get(key);
+        if (distance < otherDistance) {
+            owners.put(key, owner);
+            distances.put(key, distance);
+        }
+        // both trains have to reach the location before they can meet there
+        return Math.max(distance, otherDistance);
+    }
+}
@@ -1,31 +1,41 @@
 package edu.kit.informatik.uxnvp.trainsimulation.controller;
 
 import edu.kit.informatik.uxnvp.trainsimulation.model.train.*;
+import edu.kit.informatik.uxnvp.trainsimulation.util.IdAllocator;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
- * The fleet contains and manages all data concerning trains and rolling stocks.
+ * The fleet contains and manages all data concerning trains and rolling stocks. All of them are stored by their
+ * identifiers, so looking them up does not depend on the size of the fleet.
  * @author Max Schweikart
  * @version 1.0
  */
 public class Fleet {
-    private final Set<Engine> engines;
-    private final Set<Coach> coaches;
-    private final Set<TrainSet> trainSets;
-    private final Set<Train> trains;
+    private final Map<String, Engine> engines;
+    private final Map<Integer, Coach> coaches;
+    private final Map<String, TrainSet> trainSets;
+    private final Map<Integer, Train> trains;
+    private final Set<Train> trainsOnRails;
+    private final IdAllocator coachIds;
+    private final IdAllocator trainIds;
 
     /**
      * Constructs an empty fleet.
      */
     public Fleet() {
-        this.engines = new HashSet<>();
-        this.coaches = new HashSet<>();
-        this.trainSets = new HashSet<>();
-        this.trains = new HashSet<>();
+        this.engines = new HashMap<>();
+        this.coaches = new HashMap<>();
+        this.trainSets = new HashMap<>();
+        this.trains = new HashMap<>();
+        this.trainsOnRails = new HashSet<>();
+        this.coachIds = new IdAllocator();
+        this.trainIds = new IdAllocator();
     }
 
     /**
@@ -33,7 +43,7 @@ public class Fleet {
      * @param engine the engine to add. Should have been checked for validity before.
      */
     public void addEngine(Engine engine) {
-        engines.add(engine);
+        engines.put(engine.getId(), engine);
     }
 
     /**
@@ -42,18 +52,15 @@ public class Fleet {
      * @return the engine with the given identifier or null if no such engine is registered in this fleet.
      */
     public Engine getEngineById(String id) {
-        return engines.stream()
-                .filter(engine -> engine.getId().equals(id))
-                .findAny()
-                .orElse(null);
+        return engines.get(id);
     }
 
     /**
-     * Returns a read-only view on the set of all engines.
-     * @return a read-only view on the set of all engines.
+     * Returns a read-only view on all engines.
+     * @return a read-only view on all engines.
      */
-    public Set<Engine> getAllEngines() {
-        return Collections.unmodifiableSet(engines);
+    public Collection<Engine> getAllEngines() {
+        return Collections.unmodifiableCollection(engines.values());
     }
 
     /**
@@ -61,7 +68,7 @@ public class Fleet {
      * @param engine the engine to remove.
      */
     public void removeEngine(Engine engine) {
-        engines.remove(engine);
+        engines.remove(engine.getId(), engine);
     }
 
     /**
@@ -69,7 +76,8 @@ public class Fleet {
      * @param coach the coach to add.
      */
     public void addCoach(Coach coach) {
-        coaches.add(coach);
+        coaches.put(coach.getId(), coach);
+        coachIds.markUsed(coach.getId());
     }
 
     /**
@@ -77,13 +85,7 @@ public class Fleet {
      * @return the next available coach id.
      */
     public int getNextAvailableCoachId() {
-        for (int i = 1; i <= coaches.size() + 1; i++) {
-            if (getCoachById(i) == null) {
-                return i;
-            }
-        }
-        // this should never happen as n coaches can not occupy n + 1 ids
-        throw new AssertionError();
+        return coachIds.getNextAvailableId();
     }
 
     /**
@@ -92,18 +94,15 @@ public class Fleet {
      * @return the coach with the given id or null if no such coach exists.
      */
     public Coach getCoachById(int id) {
-        return coaches.stream()
-                .filter(coach -> coach.getId() == id)
-                .findAny()
-                .orElse(null);
+        return coaches.get(id);
     }
 
     /**
-     * Returns a read-only view on the set of all coaches.
-     * @return a read-only view on the set of all coaches.
+     * Returns a read-only view on all coaches.
+     * @return a read-only view on all coaches.
      */
-    public Set<Coach> getAllCoaches() {
-        return Collections.unmodifiableSet(coaches);
+    public Collection<Coach> getAllCoaches() {
+        return Collections.unmodifiableCollection(coaches.values());
     }
 
     /**
@@ -111,7 +110,9 @@ public class Fleet {
      * @param coach the coach to remove.
      */
     public void removeCoach(Coach coach) {
-        coaches.remove(coach);
+        if (coaches.remove(coach.getId(), coach)) {
+            coachIds.release(coach.getId());
+        }
     }
 
     /**
@@ -120,10 +121,7 @@ public class Fleet {
      * @return the train-set with the given identifier or null if no such train-set is registered in this fleet.
      */
     public TrainSet getTrainSetById(String id) {
-        return trainSets.stream()
-                .filter(trainSet -> trainSet.getId().equals(id))
-                .findAny()
-                .orElse(null);
+        return trainSets.get(id);
     }
 
     /**
@@ -131,15 +129,15 @@ public class Fleet {
      * @param trainSet the train-set to add.
      */
     public void addTrainSet(TrainSet trainSet) {
-        trainSets.add(trainSet);
+        trainSets.put(trainSet.getId(), trainSet);
     }
 
     /**
-     * Returns a read-only view on the set of all train-sets.
-     * @return a read-only view on the set of all train-sets.
+     * Returns a read-only view on all train-sets.
+     * @return a read-only view on all train-sets.
      */
-    public Set<TrainSet> getAllTrainSets() {
-        return Collections.unmodifiableSet(trainSets);
+    public Collection<TrainSet> getAllTrainSets() {
+        return Collections.unmodifiableCollection(trainSets.values());
     }
 
     /**
@@ -147,7 +145,7 @@ public class Fleet {
      * @param trainSet the train-set to remove.
      */
     public void removeTrainSet(TrainSet trainSet) {
-        trainSets.remove(trainSet);
+        trainSets.remove(trainSet.getId(), trainSet);
     }
 
     /**
@@ -159,21 +157,31 @@ public class Fleet {
         Train train = getTrainById(id);
         if (train == null && id == getNextAvailableTrainId()) {
             train = new Train(id);
-            trains.add(train);
+            addTrain(train);
         }
         return train;
     }
 
+    /**
+     * Adds a train to this fleet, e.g. when restoring a saved fleet.
+     * @param train the train to add. Its id must not be used by another train of this fleet.
+     */
+    public void addTrain(Train train) {
+        trains.put(train.getId(), train);
+        trainIds.markUsed(train.getId());
+        train.setPlacementListener(this::updateTrainOnRails);
+        if (train.getCurrentLocation() != null) {
+            trainsOnRails.add(train);
+        }
+    }
+
     /**
      * Finds a train based on it's identifier.
      * @param id the identifier of the train to find.
      * @return the train with the given id or null
      */
     public Train getTrainById(int id) {
-        return trains.stream()
-                .filter(train -> train.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return trains.get(id);
     }
 
     /**
@@ -181,13 +189,7 @@ public class Fleet {
      * @return the next available train id.
      */
     private int getNextAvailableTrainId() {
-        for (int i = 1; i <= trains.size() + 1; i++) {
-            if (getTrainById(i) == null) {
-                return i;
-            }
-        }
-        // this should never happen as n trains can not occupy n + 1 ids
-        throw new AssertionError();
+        return trainIds.getNextAvailableId();
     }
 
     /**
@@ -196,25 +198,42 @@ public class Fleet {
      */
     public void removeTrain(Train train) {
         train.removeAllRollingStocks();
-        trains.remove(train);
+        if (trains.remove(train.getId(), train)) {
+            trainIds.release(train.getId());
+            trainsOnRails.remove(train);
+            train.setPlacementListener(null);
+        }
     }
 
     /**
-     * Returns a read-only view on the set of all trains.
-     * @return a read-only view on the set of all trains.
+     * Returns a read-only view on all trains.
+     * @return a read-only view on all trains.
      */
-    public Set<Train> getAllTrains() {
-        return Collections.unmodifiableSet(trains);
+    public Collection<Train> getAllTrains() {
+        return Collections.unmodifiableCollection(trains.values());
     }
 
     /**
-     * Returns a set of all trains that are currently on a rail.
-     * @return a set of all trains that are currently on a rail.
+     * Returns a read-only view on the set of all trains that are currently on a rail. The view is kept up to date when
+     * trains are put on or removed from the rails, so it must be copied before iterating over it while changing train
+     * locations.
+     * @return a read-only view on the set of all trains that are currently on a rail.
      */
     public Set<Train> getTrainsOnRails() {
-        return trains.stream()
-                .filter(train -> train.getCurrentLocation() != null)
-                .collect(Collectors.toSet());
+        return Collections.unmodifiableSet(trainsOnRails);
+    }
+
+    /**
+     * Keeps the set of trains on the rails up to date.
+     * @param train the train that was put on or removed from the rails.
+     * @param onRails whether the train is on the rails now.
+     */
+    private void updateTrainOnRails(Train train, boolean onRails) {
+        if (onRails) {
+            trainsOnRails.add(train);
+        } else {
+            trainsOnRails.remove(train);
+        }
     }
 
     /**
@@ -0,0 +1,181 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Alignment;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.PackedPoint;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import edu.kit.informatik.uxnvp.trainsimulation.util.UnionFind;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Finds the owners of {@link TrainOccupancy runs} that share a point by testing intervals for overlaps instead of
+ * comparing points, so the cost depends on the amount of runs and not on their lengths.<br/>
+ * Every run is an interval on the row (or column) it lies on, and two runs on the same line share a point if their
+ * intervals overlap. A point shared by a horizontal and a vertical run is covered by tracks of both alignments, so it
+ * can not be in the middle of exactly one track with the alignment of the run. The points of runs without such an
+ * interior track are therefore also added as single points to the crossing lines, which turns these shared points into
+ * overlaps as well.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class OverlapSweep {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_OWNER = -1;
+
+    private long[] lines;
+    private int[] lows;
+    private int[] highs;
+    private int[] owners;
+    private int size;
+
+    /**
+     * Constructs an empty sweep. All structures are reused after {@link #clear()}.
+     */
+    OverlapSweep() {
+        this.lines = new long[INITIAL_CAPACITY];
+        this.lows = new int[INITIAL_CAPACITY];
+        this.highs = new int[INITIAL_CAPACITY];
+        this.owners = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Removes all intervals from this sweep.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds all runs of an occupancy.
+     * @param occupancy the occupancy.
+     * @param owner the owner of the runs. Must not be negative.
+     */
+    void addOccupancy(TrainOccupancy occupancy, int owner) {
+        for (int run = 0; run < occupancy.getRunAmount(); run++) {
+            addRun(occupancy, run, owner);
+        }
+    }
+
+    /**
+     * Adds a run of an occupancy.
+     * @param occupancy the occupancy.
+     * @param run the index of the run, counted from the head.
+     * @param owner the owner of the run. Must not be negative.
+     */
+    void addRun(TrainOccupancy occupancy, int run, int owner) {
+        Direction direction = occupancy.getRunDirection(run);
+        boolean horizontal = direction.getAlignment() == Alignment.HORIZONTAL;
+        long first = occupancy.getPackedPoint(run, 0);
+        long last = occupancy.getPackedPoint(run, occupancy.getRunLength(run) - 1);
+        if (horizontal) {
+            add(toLine(true, PackedPoint.getY(first)), PackedPoint.getX(first), PackedPoint.getX(last), owner);
+        } else {
+            add(toLine(false, PackedPoint.getX(first)), PackedPoint.getY(first), PackedPoint.getY(last), owner);
+        }
+
+        Track track = occupancy.getRunInteriorTrack(run);
+        if (track == null || track.getAlignment() != direction.getAlignment()) {
+            // the points might be shared with runs on the crossing lines
+            for (int i = 0; i < occupancy.getRunLength(run); i++) {
+                long point = occupancy.getPackedPoint(run, i);
+                if (horizontal) {
+                    add(toLine(false, PackedPoint.getX(point)), PackedPoint.getY(point), PackedPoint.getY(point),
+                            owner);
+                } else {
+                    add(toLine(true, PackedPoint.getY(point)), PackedPoint.getX(point), PackedPoint.getX(point),
+                            owner);
+                }
+            }
+        }
+    }
+
+    private static long toLine(boolean horizontal, int coordinate) {
+        return 2L * coordinate + (horizontal ? 0 : 1);
+    }
+
+    private void add(long line, int a, int b, int owner) {
+        if (size == lines.length) {
+            int capacity = 2 * size;
+            lines = Arrays.copyOf(lines, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            highs = Arrays.copyOf(highs, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+        }
+        lines[size] = line;
+        lows[size] = Math.min(a, b);
+        highs[size] = Math.max(a, b);
+        owners[size] = owner;
+        size++;
+    }
+
+    /**
+     * Checks whether any two intervals of different owners overlap.
+     * @return true if two different owners share a point and false otherwise.
+     */
+    boolean hasOverlaps() {
+        return sweep(null);
+    }
+
+    /**
+     * Merges the sets of all owners that share a point with another owner.
+     * @param groups the sets of owners. Must contain all owners of this sweep.
+     */
+    void link(UnionFind groups) {
+        sweep(groups);
+    }
+
+    /**
+     * Sweeps every line from low to high. An interval overlaps an interval of another owner that started before it if
+     * and only if the highest bound of the earlier intervals of other owners reaches it. As all of these intervals
+     * share the low bound of the new interval, they are already linked with each other, so the interval only has to be
+     * linked with one of them.
+     * @param groups the sets of owners to merge or null if the sweep should stop at the first overlap.
+     * @return true if two different owners share a point and false otherwise.
+     */
+    private boolean sweep(UnionFind groups) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> lines[i]).thenComparingInt(i -> lows[i]));
+
+        boolean overlapFound = false;
+        // the interval reaching highest and the interval reaching highest of all other owners
+        int bestHigh = 0;
+        int bestOwner = NO_OWNER;
+        int secondHigh = 0;
+        int secondOwner = NO_OWNER;
+        for (int k = 0; k < size; k++) {
+            int i = order[k];
+            if (k == 0 || lines[i] != lines[order[k - 1]]) {
+                bestOwner = NO_OWNER;
+                secondOwner = NO_OWNER;
+            }
+
+            int otherHigh = bestOwner != owners[i] ? bestHigh : secondHigh;
+            int otherOwner = bestOwner != owners[i] ? bestOwner : secondOwner;
+            if (otherOwner != NO_OWNER && otherHigh >= lows[i]) {
+                if (groups == null) {
+                    return true;
+                }
+                groups.union(owners[i], otherOwner);
+                overlapFound = true;
+            }
+
+            if (owners[i] == bestOwner) {
+                bestHigh = Math.max(bestHigh, highs[i]);
+            } else if (bestOwner == NO_OWNER || highs[i] > bestHigh) {
+                secondHigh = bestHigh;
+                secondOwner = bestOwner;
+                bestHigh = highs[i];
+                bestOwner = owners[i];
+            } else if (secondOwner == NO_OWNER || highs[i] > secondHigh) {
+                secondHigh = highs[i];
+                secondOwner = owners[i];
+            }
+        }
+        return overlapFound;
+    }
+}
@@ -0,0 +1,147 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.PackedPoint;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+
+/**
+ * A mutable position on a {@link RailGraph}. A cursor is the compiled form of a {@link TrainLocation}: it stores the
+ * node, the offset along the node and whether the direction of the location points from the start to the end of the
+ * node. At a connection of two tracks, the cursor is always on the track the location came from.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public final class RailCursor {
+    private RailNode node;
+    private long offset;
+    private boolean forward;
+
+    /**
+     * Constructs a new cursor.
+     * @param node the node of the cursor.
+     * @param offset the offset along the node.
+     * @param forward whether the cursor points from the start to the end of the node.
+     */
+    RailCursor(RailNode node, long offset, boolean forward) {
+        set(node, offset, forward);
+    }
+
+    /**
+     * Moves this cursor to a new position.
+     * @param node the new node of the cursor.
+     * @param offset the new offset along the node.
+     * @param forward whether the cursor points from the start to the end of the node.
+     */
+    void set(RailNode node, long offset, boolean forward) {
+        this.node = node;
+        this.offset = offset;
+        this.forward = forward;
+    }
+
+    /**
+     * Moves this cursor to the position of another cursor.
+     * @param other the cursor whose position should be copied.
+     */
+    public void set(RailCursor other) {
+        set(other.node, other.offset, other.forward);
+    }
+
+    /**
+     * Creates an independent copy of this cursor.
+     * @return a new cursor at the same position.
+     */
+    public RailCursor copy() {
+        return new RailCursor(node, offset, forward);
+    }
+
+    /**
+     * Returns the node this cursor is on.
+     * @return the node this cursor is on.
+     */
+    RailNode getNode() {
+        return node;
+    }
+
+    /**
+     * Returns the offset of this cursor along its node.
+     * @return the offset of this cursor along its node.
+     */
+    long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns whether this cursor points from the start to the end of its node.
+     * @return whether this cursor points from the start to the end of its node.
+     */
+    boolean isForward() {
+        return forward;
+    }
+
+    /**
+     * Returns the track this cursor is on.
+     * @return the track this cursor is on.
+     */
+    public Track getTrack() {
+        return node.getTrack();
+    }
+
+    /**
+     * Returns the track this cursor is on if the cursor is in the middle of it. In a regular graph, this is the only
+     * track containing the point of this cursor.
+     * @return the track this cursor is on or null if the cursor is at one of its ends.
+     */
+    Track getInteriorTrack() {
+        return offset > 0 && offset < node.getLength() ? node.getTrack() : null;
+    }
+
+    /**
+     * Returns the x-coordinate of the point of this cursor.
+     * @return the x-coordinate of the point of this cursor.
+     */
+    public int getX() {
+        return node.getX(offset);
+    }
+
+    /**
+     * Returns the y-coordinate of the point of this cursor.
+     * @return the y-coordinate of the point of this cursor.
+     */
+    public int getY() {
+        return node.getY(offset);
+    }
+
+    /**
+     * Returns the point of this cursor.
+     * @return a new point with the coordinates of this cursor.
+     */
+    public Point getPoint() {
+        return new Point(getX(), getY());
+    }
+
+    /**
+     * Returns the point of this cursor without allocating.
+     * @return the {@link PackedPoint packed point} of this cursor.
+     */
+    long getPackedPoint() {
+        return PackedPoint.of(getX(), getY());
+    }
+
+    /**
+     * Returns the direction of this cursor.
+     * @return the direction of the node if this cursor points from its start to its end and the opposite otherwise.
+     */
+    public Direction getDirection() {
+        return forward ? node.getDirection() : node.getDirection().opposite();
+    }
+
+    /**
+     * Converts this cursor back into a train location.
+     * @return a new train location at the position of this cursor.
+     */
+    public TrainLocation toLocation() {
+        return new TrainLocation(getPoint(), getDirection());
+    }
+}
@@ -0,0 +1,338 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Switch;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compiled form of a {@link TrackNetwork} for walking along the rails. Every track with an active part is a
+ * {@link RailNode} that links to the nodes connected to its ends, so moving a {@link RailCursor} is simple pointer
+ * arithmetic. The walking rules are the same as in {@link TrackNetwork#walkStep(TrainLocation)} and
+ * {@link TrackNetwork#walkStepBackwards(TrainLocation)}, which stay the reference implementation.<br/>
+ * The graph only knows connections at the endpoints of tracks. Points that are covered by more than two tracks, that
+ * are the endpoint of one track and in the middle of another one or where two tracks cross make the graph
+ * {@link #isRegular() irregular}.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class RailGraph {
+    private final TrackNetwork network;
+    private final Map<Track, RailNode> nodes;
+    private final Set<Point> irregularPoints;
+    private final Set<Point> crossings;
+
+    /**
+     * Compiles the rail graph of a track network.
+     * @param network the network to compile.
+     */
+    RailGraph(TrackNetwork network) {
+        this.network = network;
+        this.nodes = new HashMap<>();
+        this.irregularPoints = new HashSet<>();
+        this.crossings = new HashSet<>();
+        for (Track track : network.getAllTracks()) {
+            addNode(track);
+        }
+        for (RailNode node : new ArrayList<>(nodes.values())) {
+            link(node.getTrack().getStartPoint());
+            link(node.getTrack().getEndPoint());
+        }
+    }
+
+    /**
+     * Checks whether this graph represents the track network exactly. This is not the case if there are points that
+     * are covered by more than two tracks, that are the endpoint of one track and in the middle of another one or
+     * where two tracks cross.
+     * @return true if the graph is regular and false otherwise.
+     */
+    public boolean isRegular() {
+        return irregularPoints.isEmpty() && crossings.isEmpty();
+    }
+
+    /**
+     * Adds a track that was registered in the network to this graph.
+     * @param track the track to add.
+     */
+    void addTrack(Track track) {
+        if (addNode(track)) {
+            link(track.getStartPoint());
+            link(track.getEndPoint());
+            linkEndsInMiddleOf(track);
+        }
+    }
+
+    /**
+     * Removes a track that was removed from the network from this graph.
+     * @param track the track to remove.
+     */
+    void removeTrack(Track track) {
+        RailNode node = nodes.remove(track);
+        if (node != null) {
+            link(track.getStartPoint());
+            link(track.getEndPoint());
+            relinkIrregularPoints();
+            crossings.removeIf(point -> !isCrossing(point));
+        }
+    }
+
+    /**
+     * Patches this graph after a switch changed its position.
+     * @param switchTrack the switch that changed.
+     * @param oldEndPoint the endpoint of the switch before the change or null if it did not have a position.
+     */
+    void updateSwitch(Switch switchTrack, Point oldEndPoint) {
+        RailNode node = nodes.get(switchTrack);
+        if (node == null) {
+            addTrack(switchTrack);
+        } else {
+            node.updateGeometry();
+            link(oldEndPoint);
+            link(switchTrack.getEndPoint());
+            link(switchTrack.getStartPoint());
+            linkEndsInMiddleOf(switchTrack);
+            relinkIrregularPoints();
+            crossings.removeIf(point -> !isCrossing(point));
+            crossings.addAll(network.getCrossings(switchTrack));
+        }
+    }
+
+    private boolean addNode(Track track) {
+        if (track.getEndPoint() == null || track.getAlignment() == null) {
+            // a switch without a position has no active part
+            return false;
+        }
+        nodes.put(track, new RailNode(track));
+        crossings.addAll(network.getCrossings(track));
+        return true;
+    }
+
+    private boolean isCrossing(Point point) {
+        return network.getTracksAt(point).stream().filter(track -> !track.isEndOfTrack(point)).count() >= 2;
+    }
+
+    /**
+     * Recomputes the links at the ends of other tracks that are in the middle of a track, which makes these points
+     * irregular.
+     * @param track the track whose middle is checked.
+     */
+    private void linkEndsInMiddleOf(Track track) {
+        for (Track otherTrack : network.getTracksSharingPoints(track)) {
+            for (Point end : new Point[] {otherTrack.getStartPoint(), otherTrack.getEndPoint()}) {
+                if (end != null && track.containsPoint(end) && !track.isEndOfTrack(end)) {
+                    link(end);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes the links at all irregular points, so points that became regular after a track was removed or moved
+     * are linked again.
+     */
+    private void relinkIrregularPoints() {
+        for (Point point : new ArrayList<>(irregularPoints)) {
+            link(point);
+        }
+    }
+
+    /**
+     * Recomputes the links of all nodes that have an end at a given point.
+     * @param point the point to recompute the links at.
+     */
+    private void link(Point point) {
+        Set<Track> tracksAtPoint = network.getTracksAt(point);
+        List<RailNode> nodesEndingAtPoint = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        for (Track track : tracksAtPoint) {
+            RailNode node = nodes.get(track);
+            if (node != null && track.isEndOfTrack(point)) {
+                nodesEndingAtPoint.add(node);
+                ends.add(point.equals(track.getStartPoint()) ? RailNode.START : RailNode.END);
+            }
+        }
+
+        // points where no track ends are no connection points, crossings are tracked on their own
+        if (tracksAtPoint.size() > 2
+                || !nodesEndingAtPoint.isEmpty() && nodesEndingAtPoint.size() != tracksAtPoint.size()) {
+            irregularPoints.add(point);
+        } else {
+            irregularPoints.remove(point);
+        }
+
+        if (nodesEndingAtPoint.size() == 2 && tracksAtPoint.size() == 2) {
+            nodesEndingAtPoint.get(0).setNeighbour(ends.get(0), nodesEndingAtPoint.get(1), ends.get(1));
+            nodesEndingAtPoint.get(1).setNeighbour(ends.get(1), nodesEndingAtPoint.get(0), ends.get(0));
+        } else {
+            for (int i = 0; i < nodesEndingAtPoint.size(); i++) {
+                nodesEndingAtPoint.get(i).setNeighbour(ends.get(i), null, RailNode.START);
+            }
+        }
+    }
+
+    /**
+     * Compiles a train location into a cursor.
+     * @param location the location to compile.
+     * @return a new cursor at the location or null if the location is not on the rails or if its direction does not
+     * follow the rails.
+     */
+    public RailCursor locate(TrainLocation location) {
+        Point point = location.getPoint();
+        int dx = location.getDirection().getDx();
+        int dy = location.getDirection().getDy();
+        Set<Track> tracksAtPoint = network.getTracksAt(point);
+
+        if (tracksAtPoint.size() == 1) {
+            RailNode node = nodes.get(tracksAtPoint.iterator().next());
+            if (node == null) {
+                return null;
+            } else if (dx == node.getDx() && dy == node.getDy()) {
+                return new RailCursor(node, node.getOffsetOf(point), true);
+            } else if (dx == -node.getDx() && dy == -node.getDy()) {
+                return new RailCursor(node, node.getOffsetOf(point), false);
+            } else {
+                return null;
+            }
+
+        } else if (tracksAtPoint.size() == 2) {
+            // a connection point: the cursor is on the track the location came from
+            Point previousPoint = new Point(point.getX() - dx, point.getY() - dy);
+            Iterator<Track> iterator = tracksAtPoint.iterator();
+            Track trackA = iterator.next();
+            Track trackB = iterator.next();
+            if (!trackA.isEndOfTrack(point) || !trackB.isEndOfTrack(point)
+                    || trackA.containsPoint(previousPoint) == trackB.containsPoint(previousPoint)) {
+                return null;
+            }
+            RailNode node = nodes.get(trackA.containsPoint(previousPoint) ? trackA : trackB);
+            boolean atEnd = point.equals(node.getTrack().getEndPoint());
+            return new RailCursor(node, atEnd ? node.getLength() : 0, atEnd);
+
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Moves a cursor one step forward, following the rules of {@link TrackNetwork#walkStep(TrainLocation)}.
+     * @param cursor the cursor to move.
+     * @return true if the cursor was moved and false if walking one step leads off the rails. The cursor is not
+     * modified in that case.
+     */
+    public boolean stepForward(RailCursor cursor) {
+        RailNode node = cursor.getNode();
+        long offset = cursor.getOffset();
+        boolean forward = cursor.isForward();
+        int frontEnd = forward ? RailNode.END : RailNode.START;
+        int backEnd = forward ? RailNode.START : RailNode.END;
+
+        if (offset == node.getOffsetOfEnd(frontEnd)) {
+            RailNode next = node.getNeighbour(frontEnd);
+            if (next == null) {
+                return false;
+            }
+            int entryEnd = node.getNeighbourEnd(frontEnd);
+            boolean nextForward = entryEnd == RailNode.START;
+            cursor.set(next, next.getOffsetOfEnd(entryEnd) + (nextForward ? 1 : -1), nextForward);
+        } else if (offset == node.getOffsetOfEnd(backEnd) && node.getNeighbour(backEnd) == null) {
+            // the reference implementation does not move trains away from dead ends
+            return false;
+        } else {
+            cursor.set(node, offset + (forward ? 1 : -1), forward);
+        }
+        return true;
+    }
+
+    /**
+     * Moves a cursor one step backwards, following the rules of
+     * {@link TrackNetwork#walkStepBackwards(TrainLocation)}.
+     * @param cursor the cursor to move.
+     * @return true if the cursor was moved and false if walking back leads off the rails. The cursor is not modified
+     * in that case.
+     */
+    public boolean stepBackward(RailCursor cursor) {
+        RailNode node = cursor.getNode();
+        long offset = cursor.getOffset();
+        boolean forward = cursor.isForward();
+        int backEnd = forward ? RailNode.START : RailNode.END;
+
+        if (offset == node.getOffsetOfEnd(backEnd)) {
+            // cursors are only behind the end of their node at dead ends
+            return false;
+        }
+        long newOffset = offset + (forward ? -1 : 1);
+        RailNode previous = node.getNeighbour(backEnd);
+        if (newOffset == node.getOffsetOfEnd(backEnd) && previous != null) {
+            // continue on the previous node so that the cursor is on the track it came from
+            int exitEnd = node.getNeighbourEnd(backEnd);
+            cursor.set(previous, previous.getOffsetOfEnd(exitEnd), exitEnd == RailNode.END);
+        } else {
+            cursor.set(node, newOffset, forward);
+        }
+        return true;
+    }
+
+    /**
+     * Moves a cursor forward along its node like {@link #stepForward(RailCursor)}, but by multiple steps at once. The
+     * cursor stops before the front end of its node, so all locations it passes are in the middle of the node.
+     * @param cursor the cursor to move.
+     * @param maxSteps the maximum amount of steps to move.
+     * @return the amount of steps the cursor was moved.
+     */
+    public long skipForward(RailCursor cursor, long maxSteps) {
+        RailNode node = cursor.getNode();
+        long offset = cursor.getOffset();
+        boolean forward = cursor.isForward();
+        long distanceToFrontEnd = forward ? node.getLength() - offset : offset;
+        long steps = Math.max(0, Math.min(maxSteps, distanceToFrontEnd - 1));
+        cursor.set(node, offset + (forward ? steps : -steps), forward);
+        return steps;
+    }
+
+    /**
+     * Moves a cursor backwards along its node like {@link #stepBackward(RailCursor)}, but by multiple steps at once.
+     * The cursor stops before the back end of its node, so all locations it passes are in the middle of the node.
+     * @param cursor the cursor to move.
+     * @param maxSteps the maximum amount of steps to move.
+     * @return the amount of steps the cursor was moved.
+     */
+    public long skipBackward(RailCursor cursor, long maxSteps) {
+        RailNode node = cursor.getNode();
+        long offset = cursor.getOffset();
+        boolean forward = cursor.isForward();
+        long distanceToBackEnd = forward ? offset : node.getLength() - offset;
+        long steps = Math.max(0, Math.min(maxSteps, distanceToBackEnd - 1));
+        cursor.set(node, offset + (forward ? -steps : steps), forward);
+        return steps;
+    }
+
+    /**
+     * Finds the train location that a train would be at after walking one step on the rails from given location.
+     * @param current the current location to walk from.
+     * @return the location after walking one step or null if walking one step leads off the rails or if the location
+     * can not be represented in this graph.
+     */
+    public TrainLocation walkStep(TrainLocation current) {
+        RailCursor cursor = locate(current);
+        return cursor != null && stepForward(cursor) ? cursor.toLocation() : null;
+    }
+
+    /**
+     * Finds the train location that a train would be at if it moved back one step from a given location.
+     * @param current the current location to walk back from.
+     * @return the location after walking back one step or null if walking back leads off the rails or if the location
+     * can not be represented in this graph.
+     */
+    public TrainLocation walkStepBackwards(TrainLocation current) {
+        RailCursor cursor = locate(current);
+        return cursor != null && stepBackward(cursor) ? cursor.toLocation() : null;
+    }
+}
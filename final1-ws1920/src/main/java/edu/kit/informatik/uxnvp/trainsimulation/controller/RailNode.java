@@ -0,0 +1,162 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+
+/**
+ * A node of a {@link RailGraph}. Every node represents the currently active part of one track as a straight line from
+ * the start point (offset 0) to the end point (offset {@link #getLength()}) and knows the nodes connected to both ends.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+final class RailNode {
+    /**
+     * The index of the start end of a node.
+     */
+    static final int START = 0;
+    /**
+     * The index of the end end of a node.
+     */
+    static final int END = 1;
+
+    private final Track track;
+    private final RailNode[] neighbours;
+    private final int[] neighbourEnds;
+    private int startX;
+    private int startY;
+    private int dx;
+    private int dy;
+    private Direction direction;
+    private long length;
+
+    /**
+     * Constructs a node for the active part of a track. The track must be aligned.
+     * @param track the track this node represents.
+     */
+    RailNode(Track track) {
+        this.track = track;
+        this.neighbours = new RailNode[2];
+        this.neighbourEnds = new int[2];
+        updateGeometry();
+    }
+
+    /**
+     * Recomputes the geometry of this node from its track, e.g. after a switch changed its position.
+     */
+    void updateGeometry() {
+        Point start = track.getStartPoint();
+        Point end = track.getEndPoint();
+        startX = start.getX();
+        startY = start.getY();
+        dx = Integer.signum(Integer.compare(end.getX(), startX));
+        dy = Integer.signum(Integer.compare(end.getY(), startY));
+        direction = Direction.fromPoint(new Point(dx, dy));
+        length = track.getLength();
+    }
+
+    /**
+     * Returns the track this node represents.
+     * @return the track this node represents.
+     */
+    Track getTrack() {
+        return track;
+    }
+
+    /**
+     * Returns the x-coordinate of the point at an offset along this node.
+     * @param offset the offset from the start point.
+     * @return the x-coordinate of the point at the given offset.
+     */
+    int getX(long offset) {
+        return (int) (startX + dx * offset);
+    }
+
+    /**
+     * Returns the y-coordinate of the point at an offset along this node.
+     * @param offset the offset from the start point.
+     * @return the y-coordinate of the point at the given offset.
+     */
+    int getY(long offset) {
+        return (int) (startY + dy * offset);
+    }
+
+    /**
+     * Returns the x-value of the unit vector pointing from the start point to the end point.
+     * @return the x-value of the unit vector pointing from the start point to the end point.
+     */
+    int getDx() {
+        return dx;
+    }
+
+    /**
+     * Returns the y-value of the unit vector pointing from the start point to the end point.
+     * @return the y-value of the unit vector pointing from the start point to the end point.
+     */
+    int getDy() {
+        return dy;
+    }
+
+    /**
+     * Returns the direction pointing from the start point to the end point.
+     * @return the direction pointing from the start point to the end point.
+     */
+    Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Returns the length of this node.
+     * @return the length of this node.
+     */
+    long getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the offset of an end of this node.
+     * @param end {@link #START} or {@link #END}.
+     * @return 0 for the start and the length of this node for the end.
+     */
+    long getOffsetOfEnd(int end) {
+        return end == START ? 0 : length;
+    }
+
+    /**
+     * Computes the offset of a point along this node.
+     * @param point the point. Must be on this node.
+     * @return the offset of the point from the start point.
+     */
+    long getOffsetOf(Point point) {
+        return Math.abs((long) point.getX() - startX) + Math.abs((long) point.getY() - startY);
+    }
+
+    /**
+     * Returns the node connected to an end of this node.
+     * @param end {@link #START} or {@link #END}.
+     * @return the connected node or null if the end is not connected to another node.
+     */
+    RailNode getNeighbour(int end) {
+        return neighbours[end];
+    }
+
+    /**
+     * Returns the end of the connected node that touches an end of this node.
+     * @param end {@link #START} or {@link #END}.
+     * @return the end of the neighbour at the given end.
+     */
+    int getNeighbourEnd(int end) {
+        return neighbourEnds[end];
+    }
+
+    /**
+     * Connects an end of this node to another node. Does not update the other node!
+     * @param end the end of this node to connect.
+     * @param neighbour the node to connect to or null to disconnect the end.
+     * @param neighbourEnd the end of the other node that touches this end.
+     */
+    void setNeighbour(int end, RailNode neighbour, int neighbourEnd) {
+        neighbours[end] = neighbour;
+        neighbourEnds[end] = neighbourEnd;
+    }
+}
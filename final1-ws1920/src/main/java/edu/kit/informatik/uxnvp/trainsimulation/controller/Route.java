@@ -0,0 +1,92 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Switch;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A route along the rails found by a {@link RoutePlanner}.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class Route {
+    private final long length;
+    private final List<Track> tracks;
+    private final List<SwitchPosition> switchPositions;
+
+    /**
+     * Constructs a new route.
+     * @param length the length of the route.
+     * @param tracks the tracks along the route in the order they are passed.
+     * @param switchPositions the switch positions that are needed along the route in the order they are passed.
+     */
+    Route(long length, List<Track> tracks, List<SwitchPosition> switchPositions) {
+        this.length = length;
+        this.tracks = Collections.unmodifiableList(tracks);
+        this.switchPositions = Collections.unmodifiableList(switchPositions);
+    }
+
+    /**
+     * Returns the length of this route, which is the amount of steps a train needs to follow it.
+     * @return the length of this route.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the tracks along this route. A track is contained multiple times if the route passes it multiple times.
+     * @return a read-only list of the tracks in the order they are passed.
+     */
+    public List<Track> getTracks() {
+        return tracks;
+    }
+
+    /**
+     * Returns the switch positions that are needed for following this route. A switch is contained multiple times if
+     * it has to be changed while following the route.
+     * @return a read-only list of the switch positions in the order they are needed.
+     */
+    public List<SwitchPosition> getSwitchPositions() {
+        return switchPositions;
+    }
+
+    /**
+     * A position that a switch must be in for following a route.
+     * @author Max Schweikart
+     * @version 1.0
+     */
+    public static final class SwitchPosition {
+        private final Switch switchTrack;
+        private final Point endPoint;
+
+        /**
+         * Constructs a new switch position.
+         * @param switchTrack the switch.
+         * @param endPoint the endpoint the switch must be switched to.
+         */
+        SwitchPosition(Switch switchTrack, Point endPoint) {
+            this.switchTrack = switchTrack;
+            this.endPoint = endPoint;
+        }
+
+        /**
+         * Returns the switch.
+         * @return the switch.
+         */
+        public Switch getSwitch() {
+            return switchTrack;
+        }
+
+        /**
+         * Returns the endpoint the switch must be switched to.
+         * @return the endpoint of the switch.
+         */
+        public Point getEndPoint() {
+            return endPoint;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Switch;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import edu.kit.informatik.uxnvp.trainsimulation.util.CollectionsUtility;
+import edu.kit.informatik.uxnvp.trainsimulation.util.MathUtility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the shortest routes along the rails of a {@link TrackNetwork} with Dijkstra's algorithm. The network is
+ * compiled into legs: every track is one leg and every switch has one leg per possible position, so routes do not
+ * depend on the current switch positions but tell which positions are needed. The connection points of the tracks are
+ * the junctions of the graph.<br/>
+ * A route follows the rails without reversing: it never leaves a junction on the leg it arrived on or on another leg
+ * of the same switch. The search runs over the legs a route arrives on, which is what makes these rules easy to check.
+ * <br/>
+ * A planner represents the layout of a network at one point in time, so it has to be replaced when tracks are
+ * registered or removed (see {@link TrackNetwork#getRoutePlanner()}). Changing switch positions does not affect it.
+ * The most recent routes are cached.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class RoutePlanner {
+    private static final int MAXIMUM_CACHED_ROUTES = 4096;
+    private static final int NO_STATE = -1;
+
+    /**
+     * For every leg, the track it belongs to.
+     */
+    private final Track[] legTracks;
+    /**
+     * The two ends of every leg: the end at index {@code 2 * leg} is the start point of the track, the end at index
+     * {@code 2 * leg + 1} is its endpoint (or one of the endpoints for a switch).
+     */
+    private final Point[] legEnds;
+    private final long[] legLengths;
+    /**
+     * For every junction, the indices of the leg ends at it.
+     */
+    private final Map<Point, int[]> legEndsByJunction;
+    private final Map<RouteQuery, Route> cachedRoutes;
+
+    /**
+     * Compiles the current layout of a track network.
+     * @param network the network to compile.
+     */
+    RoutePlanner(TrackNetwork network) {
+        // sorted, so that equally short routes are chosen the same way every time
+        List<Track> tracks = CollectionsUtility.toSortedList(network.getAllTracks());
+        List<Track> legTrackList = new ArrayList<>();
+        List<Point> legEndList = new ArrayList<>();
+        for (Track track : tracks) {
+            if (track instanceof Switch) {
+                Switch switchTrack = (Switch) track;
+                addLeg(legTrackList, legEndList, track, switchTrack.getEndPoint1());
+                addLeg(legTrackList, legEndList, track, switchTrack.getEndPoint2());
+            } else {
+                addLeg(legTrackList, legEndList, track, track.getEndPoint());
+            }
+        }
+        this.legTracks = legTrackList.toArray(new Track[0]);
+        this.legEnds = legEndList.toArray(new Point[0]);
+        this.legLengths = new long[legTracks.length];
+        for (int leg = 0; leg < legTracks.length; leg++) {
+            legLengths[leg] = legEnds[2 * leg].distanceTo(legEnds[2 * leg + 1]);
+        }
+
+        this.legEndsByJunction = new HashMap<>();
+        for (int end = 0; end < legEnds.length; end++) {
+            int[] endsAtJunction = legEndsByJunction.get(legEnds[end]);
+            endsAtJunction = endsAtJunction == null ? new int[1] : Arrays.copyOf(endsAtJunction,
+                    endsAtJunction.length + 1);
+            endsAtJunction[endsAtJunction.length - 1] = end;
+            legEndsByJunction.put(legEnds[end], endsAtJunction);
+        }
+
+        this.cachedRoutes = new LinkedHashMap<RouteQuery, Route>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteQuery, Route> eldest) {
+                return size() > MAXIMUM_CACHED_ROUTES;
+            }
+        };
+    }
+
+    private static void addLeg(List<Track> legTracks, List<Point> legEnds, Track track, Point endPoint) {
+        legTracks.add(track);
+        legEnds.add(track.getStartPoint());
+        legEnds.add(endPoint);
+    }
+
+    /**
+     * Checks whether a point is on a track of the network, including the positions a switch is not switched to.
+     * @param point the point to check.
+     * @return true if a route can start or end at the point and false otherwise.
+     */
+    public boolean isOnRails(Point point) {
+        for (int leg = 0; leg < legTracks.length; leg++) {
+            if (containsPoint(leg, point)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the shortest route between two points. The route may start in both directions.
+     * @param start the point to start at.
+     * @param target the point to reach.
+     * @return the shortest route or null if the target can not be reached.
+     */
+    public Route findRoute(Point start, Point target) {
+        return findCachedRoute(new RouteQuery(start, null, target));
+    }
+
+    /**
+     * Finds the shortest route that a train at a location can take to reach a point without reversing.
+     * @param start the location of the train.
+     * @param target the point to reach.
+     * @return the shortest route or null if the target can not be reached in the direction of the train.
+     */
+    public Route findRoute(TrainLocation start, Point target) {
+        return findCachedRoute(new RouteQuery(start.getPoint(), start.getDirection(), target));
+    }
+
+    private Route findCachedRoute(RouteQuery query) {
+        if (cachedRoutes.containsKey(query)) {
+            return cachedRoutes.get(query);
+        }
+        Route route = search(query.start, query.direction, query.target);
+        cachedRoutes.put(query, route);
+        return route;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm. A state is a leg end, i.e. the state of having passed a leg up to that end.
+     * @param start the point to start at.
+     * @param direction the direction to start in or null if both directions are allowed.
+     * @param target the point to reach.
+     * @return the shortest route or null if the target can not be reached.
+     */
+    private Route search(Point start, Direction direction, Point target) {
+        if (start.equals(target)) {
+            return new Route(0, new ArrayList<>(), new ArrayList<>());
+        }
+
+        long[] distances = new long[legEnds.length];
+        Arrays.fill(distances, Long.MAX_VALUE);
+        int[] previousStates = new int[legEnds.length];
+        PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+        long bestLength = Long.MAX_VALUE;
+        // the state before the last leg of the best route and the last leg, which might only be passed partially
+        int bestState = NO_STATE;
+        int bestLastLeg = NO_STATE;
+
+        for (int leg = 0; leg < legTracks.length; leg++) {
+            if (!containsPoint(leg, start)) {
+                continue;
+            }
+            for (int end = 2 * leg; end <= 2 * leg + 1; end++) {
+                Point endPoint = legEnds[end];
+                if (endPoint.equals(start)
+                        || direction != null && Direction.fromPoint(endPoint.subtract(start)) != direction) {
+                    continue;
+                }
+                if (isBetween(start, endPoint, target) && start.distanceTo(target) < bestLength) {
+                    // the target is on the same leg
+                    bestLength = start.distanceTo(target);
+                    bestState = NO_STATE;
+                    bestLastLeg = leg;
+                }
+                long distance = start.distanceTo(endPoint);
+                if (distance < distances[end]) {
+                    distances[end] = distance;
+                    previousStates[end] = NO_STATE;
+                    queue.add(new long[] {distance, end});
+                }
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            long distance = entry[0];
+            int state = (int) entry[1];
+            if (distance >= bestLength) {
+                break;
+            } else if (distance > distances[state]) {
+                // the state was reached on a shorter route before
+                continue;
+            }
+            Point junction = legEnds[state];
+            if (junction.equals(target)) {
+                bestLength = distance;
+                bestState = previousStates[state];
+                bestLastLeg = state / 2;
+                break;
+            }
+
+            for (int nextEnd : legEndsByJunction.get(junction)) {
+                int nextLeg = nextEnd / 2;
+                if (legTracks[nextLeg] == legTracks[state / 2]) {
+                    // turning around or passing from one position of a switch to the other one
+                    continue;
+                }
+                if (containsPoint(nextLeg, target) && distance + junction.distanceTo(target) < bestLength) {
+                    bestLength = distance + junction.distanceTo(target);
+                    bestState = state;
+                    bestLastLeg = nextLeg;
+                }
+                // leave the junction at the other end of the next leg
+                int nextState = nextEnd ^ 1;
+                long nextDistance = distance + legLengths[nextLeg];
+                if (nextDistance < distances[nextState]) {
+                    distances[nextState] = nextDistance;
+                    previousStates[nextState] = state;
+                    queue.add(new long[] {nextDistance, nextState});
+                }
+            }
+        }
+        return bestLength == Long.MAX_VALUE ? null : buildRoute(bestLength, previousStates, bestState, bestLastLeg);
+    }
+
+    private Route buildRoute(long length, int[] previousStates, int lastState, int lastLeg) {
+        List<Integer> legs = new ArrayList<>();
+        legs.add(lastLeg);
+        for (int state = lastState; state != NO_STATE; state = previousStates[state]) {
+            legs.add(state / 2);
+        }
+        Collections.reverse(legs);
+
+        List<Track> tracks = new ArrayList<>();
+        List<Route.SwitchPosition> switchPositions = new ArrayList<>();
+        Map<Track, Point> currentPositions = new HashMap<>();
+        for (int leg : legs) {
+            Track track = legTracks[leg];
+            tracks.add(track);
+            Point endPoint = legEnds[2 * leg + 1];
+            if (track instanceof Switch && !endPoint.equals(currentPositions.put(track, endPoint))) {
+                switchPositions.add(new Route.SwitchPosition((Switch) track, endPoint));
+            }
+        }
+        return new Route(length, tracks, switchPositions);
+    }
+
+    private boolean containsPoint(int leg, Point point) {
+        return isBetween(legEnds[2 * leg], legEnds[2 * leg + 1], point);
+    }
+
+    /**
+     * Checks whether a point is on the line between two aligned points.
+     * @param a one end of the line.
+     * @param b the other end of the line.
+     * @param point the point to check.
+     * @return true if the point is on the line, including its ends.
+     */
+    private static boolean isBetween(Point a, Point b, Point point) {
+        return MathUtility.isBetween(a.getX(), b.getX(), point.getX())
+                && MathUtility.isBetween(a.getY(), b.getY(), point.getY());
+    }
+
+    /**
+     * The parameters of a route search, used as the key of the cache.
+     * @author Max Schweikart
+     * @version 1.0
+     */
+    private static final class RouteQuery {
+        private final Point start;
+        private final Direction direction;
+        private final Point target;
+
+        private RouteQuery(Point start, Direction direction, Point target) {
+            this.start = start;
+            this.direction = direction;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (obj != null && obj.getClass() == this.getClass()) {
+                RouteQuery other = (RouteQuery) obj;
+                return start.equals(other.start) && direction == other.direction && target.equals(other.target);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, direction, target);
+        }
+    }
+}
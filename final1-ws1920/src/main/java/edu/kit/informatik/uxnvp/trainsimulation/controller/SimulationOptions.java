@@ -0,0 +1,113 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+/**
+ * Options for selecting the algorithms a {@link TrainSimulation} uses. The options only affect the performance of the
+ * simulation, all combinations lead to the same results.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class SimulationOptions {
+    private boolean railGraphEnabled;
+    private boolean collisionGridEnabled;
+    private int parallelism;
+    private boolean fastForwardEnabled;
+    private boolean eventDrivenEnabled;
+
+    /**
+     * Constructs the default options, which use the reference implementations.
+     */
+    public SimulationOptions() {
+        this.railGraphEnabled = false;
+        this.collisionGridEnabled = false;
+        this.parallelism = 1;
+        this.fastForwardEnabled = false;
+        this.eventDrivenEnabled = false;
+    }
+
+    /**
+     * Returns whether trains are moved on the compiled {@link RailGraph} instead of the walkers of the
+     * {@link TrackNetwork}.
+     * @return whether the rail graph is used for moving trains.
+     */
+    public boolean isRailGraphEnabled() {
+        return railGraphEnabled;
+    }
+
+    /**
+     * Sets whether trains are moved on the compiled {@link RailGraph} instead of the walkers of the
+     * {@link TrackNetwork}. The walkers are still used for networks whose rail graph is not regular.
+     * @param railGraphEnabled whether the rail graph should be used for moving trains.
+     */
+    public void setRailGraphEnabled(boolean railGraphEnabled) {
+        this.railGraphEnabled = railGraphEnabled;
+    }
+
+    /**
+     * Returns whether crashes are found with the {@link CollisionGrid} instead of the reference implementation.
+     * @return whether the collision grid is used for finding crashes.
+     */
+    public boolean isCollisionGridEnabled() {
+        return collisionGridEnabled;
+    }
+
+    /**
+     * Sets whether crashes are found with the {@link CollisionGrid} instead of the reference implementation.
+     * @param collisionGridEnabled whether the collision grid should be used for finding crashes.
+     */
+    public void setCollisionGridEnabled(boolean collisionGridEnabled) {
+        this.collisionGridEnabled = collisionGridEnabled;
+    }
+
+    /**
+     * Returns the amount of threads that move the trains during a simulation step. Crashes are always resolved after
+     * all trains were moved, so the parallelism does not affect the results.
+     * @return the amount of threads that move trains. 1 means that all trains are moved by the calling thread.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the amount of threads that move the trains during a simulation step.
+     * @param parallelism the amount of threads that move trains. Must be positive.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns whether a simulation step skips the crash check for sub-steps in which no train can crash.
+     * @return whether the fast-forward is used for simulation steps.
+     */
+    public boolean isFastForwardEnabled() {
+        return fastForwardEnabled;
+    }
+
+    /**
+     * Sets whether a simulation step skips the crash check for sub-steps in which no train can crash. The
+     * fast-forward is only used for networks whose {@link RailGraph} is regular.
+     * @param fastForwardEnabled whether the fast-forward should be used for simulation steps.
+     */
+    public void setFastForwardEnabled(boolean fastForwardEnabled) {
+        this.fastForwardEnabled = fastForwardEnabled;
+    }
+
+    /**
+     * Returns whether simulation steps are run by the {@link EventSimulator} instead of moving all trains sub-step by
+     * sub-step.
+     * @return whether the event simulator is used for simulation steps.
+     */
+    public boolean isEventDrivenEnabled() {
+        return eventDrivenEnabled;
+    }
+
+    /**
+     * Sets whether simulation steps are run by the {@link EventSimulator} instead of moving all trains sub-step by
+     * sub-step. The event simulator is only used for networks whose {@link RailGraph} is regular and runs on the
+     * calling thread.
+     * @param eventDrivenEnabled whether the event simulator should be used for simulation steps.
+     */
+    public void setEventDrivenEnabled(boolean eventDrivenEnabled) {
+        this.eventDrivenEnabled = eventDrivenEnabled;
+    }
+}
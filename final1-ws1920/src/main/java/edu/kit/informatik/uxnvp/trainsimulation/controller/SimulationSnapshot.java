@@ -0,0 +1,454 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Switch;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Coach;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.CoachType;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Engine;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.EngineType;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.RollingStock;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.TrainSet;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Saves a {@link TrainSimulation} to a compact binary file and restores it. A snapshot contains the tracks and switch
+ * positions of the track network, all rolling stocks and trains of the fleet and the locations of the trains, with
+ * all identifiers. The options are not part of a snapshot.<br/>
+ * Snapshots are written through a {@link FileChannel} and read from a memory-mapped buffer, so restoring a large
+ * simulation does neither replay commands nor copy the file into the heap first.<br/>
+ * The format starts with {@link #MAGIC} and {@link #FORMAT_VERSION}, followed by the tracks, engines, coaches,
+ * train-sets and trains. Every section starts with the amount of entries. Numbers are big-endian and strings are
+ * stored as their length followed by their ASCII characters.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public final class SimulationSnapshot {
+    /**
+     * The first bytes of every snapshot ("TSIM").
+     */
+    private static final int MAGIC = 0x5453494D;
+    /**
+     * The version of the format, which changes whenever the format changes.
+     */
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte TRACK = 0;
+    private static final byte SWITCH = 1;
+    private static final byte SWITCH_NOT_SET = 0;
+    private static final byte SWITCH_AT_END_POINT_1 = 1;
+    private static final byte SWITCH_AT_END_POINT_2 = 2;
+    private static final byte NOT_ON_RAILS = 0;
+    private static final byte ON_RAILS = 1;
+    private static final int FRONT_COUPLING = 1;
+    private static final int BACK_COUPLING = 2;
+
+    /**
+     * Utility classes should never be instantiated.
+     */
+    private SimulationSnapshot() {
+        throw new AssertionError("utility classes should never be instantiated.");
+    }
+
+    /**
+     * Writes a snapshot of a simulation into a file and forces it to the disk. An existing file is replaced.
+     * @param simulation the simulation to save.
+     * @param path the path of the file.
+     * @throws IOException if the file can not be written.
+     */
+    public static void save(TrainSimulation simulation, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            writer.putInt(MAGIC);
+            writer.putInt(FORMAT_VERSION);
+            writeTracks(writer, simulation.getTrackNetwork().getAllTracks());
+            Fleet fleet = simulation.getFleet();
+            writeEngines(writer, fleet.getAllEngines());
+            writeCoaches(writer, fleet.getAllCoaches());
+            writeTrainSets(writer, fleet.getAllTrainSets());
+            writeTrains(writer, fleet.getAllTrains());
+            writer.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Restores a simulation from a snapshot file.
+     * @param path the path of the file.
+     * @param options the options of the restored simulation.
+     * @return the restored simulation.
+     * @throws SnapshotFormatException if the file is not a valid snapshot.
+     * @throws IOException if the file can not be read.
+     */
+    public static TrainSimulation load(Path path, SimulationOptions options) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        TrainSimulation simulation = new TrainSimulation(options);
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new SnapshotFormatException("unknown snapshot format.");
+            }
+            readTracks(buffer, simulation.getTrackNetwork());
+            readEngines(buffer, simulation.getFleet());
+            readCoaches(buffer, simulation.getFleet());
+            readTrainSets(buffer, simulation.getFleet());
+            readTrains(buffer, simulation);
+        } catch (BufferUnderflowException e) {
+            throw new SnapshotFormatException("the snapshot ends unexpectedly.");
+        } catch (IllegalArgumentException e) {
+            throw new SnapshotFormatException(e.getMessage());
+        }
+        if (buffer.hasRemaining()) {
+            throw new SnapshotFormatException("the snapshot has unexpected trailing data.");
+        }
+        return simulation;
+    }
+
+    private static void writeTracks(Writer writer, Collection<Track> tracks) throws IOException {
+        writer.putInt(tracks.size());
+        for (Track track : sorted(tracks)) {
+            if (track instanceof Switch) {
+                Switch switchTrack = (Switch) track;
+                writer.put(SWITCH);
+                writer.putInt(track.getId());
+                writer.putPoint(track.getStartPoint());
+                writer.putPoint(switchTrack.getEndPoint1());
+                writer.putPoint(switchTrack.getEndPoint2());
+                if (switchTrack.getEndPoint() == null) {
+                    writer.put(SWITCH_NOT_SET);
+                } else if (switchTrack.getEndPoint().equals(switchTrack.getEndPoint1())) {
+                    writer.put(SWITCH_AT_END_POINT_1);
+                } else {
+                    writer.put(SWITCH_AT_END_POINT_2);
+                }
+            } else {
+                writer.put(TRACK);
+                writer.putInt(track.getId());
+                writer.putPoint(track.getStartPoint());
+                writer.putPoint(track.getEndPoint());
+            }
+        }
+    }
+
+    private static void readTracks(ByteBuffer buffer, TrackNetwork network) throws SnapshotFormatException {
+        int amount = readAmount(buffer);
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < amount; i++) {
+            byte kind = buffer.get();
+            int id = buffer.getInt();
+            if (id <= 0) {
+                throw new SnapshotFormatException("track ids must be positive.");
+            } else if (!ids.add(id)) {
+                throw new SnapshotFormatException(String.format("there is more than one track with the id %d.", id));
+            }
+            Point startPoint = readPoint(buffer);
+            if (kind == TRACK) {
+                network.registerTrack(new Track(startPoint, readPoint(buffer)), id);
+            } else if (kind == SWITCH) {
+                Switch switchTrack = new Switch(startPoint, readPoint(buffer), readPoint(buffer));
+                byte position = buffer.get();
+                if (position == SWITCH_AT_END_POINT_1) {
+                    switchTrack.switchTo(switchTrack.getEndPoint1());
+                } else if (position == SWITCH_AT_END_POINT_2) {
+                    switchTrack.switchTo(switchTrack.getEndPoint2());
+                } else if (position != SWITCH_NOT_SET) {
+                    throw new SnapshotFormatException("unknown switch position.");
+                }
+                network.registerTrack(switchTrack, id);
+            } else {
+                throw new SnapshotFormatException("unknown track kind.");
+            }
+        }
+    }
+
+    private static void writeEngines(Writer writer, Collection<Engine> engines) throws IOException {
+        writer.putInt(engines.size());
+        for (Engine engine : sorted(engines)) {
+            writer.put((byte) engine.getType().ordinal());
+            writer.putString(engine.getSeries());
+            writer.putString(engine.getName());
+            writer.putInt(engine.getLength());
+            writer.putCouplings(engine);
+        }
+    }
+
+    private static void readEngines(ByteBuffer buffer, Fleet fleet) throws SnapshotFormatException {
+        int amount = readAmount(buffer);
+        for (int i = 0; i < amount; i++) {
+            EngineType type = readConstant(buffer, EngineType.values());
+            String series = readString(buffer);
+            String name = readString(buffer);
+            int length = buffer.getInt();
+            byte couplings = buffer.get();
+            Engine engine = new Engine(type, series, name, length, hasFrontCoupling(couplings),
+                    hasBackCoupling(couplings));
+            checkRollingStock(engine, fleet);
+            fleet.addEngine(engine);
+        }
+    }
+
+    private static void writeCoaches(Writer writer, Collection<Coach> coaches) throws IOException {
+        writer.putInt(coaches.size());
+        for (Coach coach : sorted(coaches)) {
+            writer.put((byte) coach.getType().ordinal());
+            writer.putInt(coach.getId());
+            writer.putInt(coach.getLength());
+            writer.putCouplings(coach);
+        }
+    }
+
+    private static void readCoaches(ByteBuffer buffer, Fleet fleet) throws SnapshotFormatException {
+        int amount = readAmount(buffer);
+        for (int i = 0; i < amount; i++) {
+            CoachType type = readConstant(buffer, CoachType.values());
+            int id = buffer.getInt();
+            if (id <= 0) {
+                throw new SnapshotFormatException("coach ids must be positive.");
+            }
+            int length = buffer.getInt();
+            byte couplings = buffer.get();
+            Coach coach = new Coach(type, id, length, hasFrontCoupling(couplings), hasBackCoupling(couplings));
+            checkRollingStock(coach, fleet);
+            fleet.addCoach(coach);
+        }
+    }
+
+    /**
+     * Checks a restored rolling stock like the commands that create rolling stocks do.
+     * @param rollingStock the restored rolling stock.
+     * @param fleet the fleet the rolling stock should be added to.
+     * @throws SnapshotFormatException if the rolling stock could not have been created by a command.
+     */
+    private static void checkRollingStock(RollingStock rollingStock, Fleet fleet) throws SnapshotFormatException {
+        if (rollingStock.getLength() <= 0) {
+            throw new SnapshotFormatException(String.format("the length of '%s' must be positive.",
+                    rollingStock.getIdString()));
+        } else if (!rollingStock.hasFrontCoupling() && !rollingStock.hasBackCoupling()) {
+            throw new SnapshotFormatException(String.format("'%s' must have at least one coupling.",
+                    rollingStock.getIdString()));
+        } else if (fleet.getRollingStockById(rollingStock.getIdString()) != null) {
+            throw new SnapshotFormatException(String.format("there is more than one rolling stock with the id '%s'.",
+                    rollingStock.getIdString()));
+        }
+    }
+
+    private static void writeTrainSets(Writer writer, Collection<TrainSet> trainSets) throws IOException {
+        writer.putInt(trainSets.size());
+        for (TrainSet trainSet : sorted(trainSets)) {
+            writer.putString(trainSet.getSeries());
+            writer.putString(trainSet.getName());
+            writer.putInt(trainSet.getLength());
+            writer.putCouplings(trainSet);
+        }
+    }
+
+    private static void readTrainSets(ByteBuffer buffer, Fleet fleet) throws SnapshotFormatException {
+        int amount = readAmount(buffer);
+        for (int i = 0; i < amount; i++) {
+            String series = readString(buffer);
+            String name = readString(buffer);
+            int length = buffer.getInt();
+            byte couplings = buffer.get();
+            TrainSet trainSet = new TrainSet(series, name, length, hasFrontCoupling(couplings),
+                    hasBackCoupling(couplings));
+            checkRollingStock(trainSet, fleet);
+            fleet.addTrainSet(trainSet);
+        }
+    }
+
+    private static void writeTrains(Writer writer, Collection<Train> trains) throws IOException {
+        writer.putInt(trains.size());
+        for (Train train : sorted(trains)) {
+            writer.putInt(train.getId());
+            List<RollingStock> rollingStocks = train.getRollingStocks();
+            writer.putInt(rollingStocks.size());
+            for (RollingStock rollingStock : rollingStocks) {
+                writer.putString(rollingStock.getIdString());
+            }
+            TrainLocation location = train.getCurrentLocation();
+            if (location == null) {
+                writer.put(NOT_ON_RAILS);
+            } else {
+                writer.put(ON_RAILS);
+                writer.putPoint(location.getPoint());
+                writer.put((byte) location.getDirection().ordinal());
+            }
+        }
+    }
+
+    /**
+     * Reads the trains and puts them on the rails. The trains are checked like by the commands that add rolling stocks
+     * to trains and put them on the rails.
+     * @param buffer the buffer to read from.
+     * @param simulation the simulation to add the trains to, which already contains the tracks and rolling stocks.
+     * @throws SnapshotFormatException if the trains could not have been built or placed by commands.
+     */
+    private static void readTrains(ByteBuffer buffer, TrainSimulation simulation) throws SnapshotFormatException {
+        Fleet fleet = simulation.getFleet();
+        int amount = readAmount(buffer);
+        for (int i = 0; i < amount; i++) {
+            int id = buffer.getInt();
+            if (id <= 0) {
+                throw new SnapshotFormatException("train ids must be positive.");
+            } else if (fleet.getTrainById(id) != null) {
+                throw new SnapshotFormatException(String.format("there is more than one train with the id %d.", id));
+            }
+            Train train = new Train(id);
+            int rollingStockAmount = readAmount(buffer);
+            if (rollingStockAmount == 0) {
+                throw new SnapshotFormatException(String.format("train %d has no rolling stocks.", id));
+            }
+            for (int j = 0; j < rollingStockAmount; j++) {
+                String rollingStockId = readString(buffer);
+                RollingStock rollingStock = fleet.getRollingStockById(rollingStockId);
+                if (rollingStock == null || rollingStock.getTrain() != null) {
+                    throw new SnapshotFormatException(String.format("'%s' can not be used in a train.",
+                            rollingStockId));
+                } else if (!train.canAppend(rollingStock)) {
+                    throw new SnapshotFormatException(String.format("'%s' can not be coupled to train %d.",
+                            rollingStockId, id));
+                }
+                train.addRollingStock(rollingStock);
+            }
+            fleet.addTrain(train);
+
+            byte placement = buffer.get();
+            if (placement == ON_RAILS) {
+                Point point = readPoint(buffer);
+                TrainLocation location = new TrainLocation(point, readConstant(buffer, Direction.values()));
+                if (!train.isValid() || !simulation.fitsOnTrackRestore(train, location)) {
+                    throw new SnapshotFormatException(String.format("train %d can not be on the rails at %s.", id,
+                            point));
+                }
+                simulation.putTrain(train, location);
+            } else if (placement != NOT_ON_RAILS) {
+                throw new SnapshotFormatException("unknown train placement.");
+            }
+        }
+    }
+
+    private static <T extends Comparable<T>> List<T> sorted(Collection<T> elements) {
+        // sorted by id, so saving the same simulation twice leads to the same file
+        List<T> list = new ArrayList<>(elements);
+        list.sort(null);
+        return list;
+    }
+
+    private static int readAmount(ByteBuffer buffer) throws SnapshotFormatException {
+        int amount = buffer.getInt();
+        if (amount < 0) {
+            throw new SnapshotFormatException("amounts must not be negative.");
+        }
+        return amount;
+    }
+
+    private static Point readPoint(ByteBuffer buffer) {
+        int x = buffer.getInt();
+        int y = buffer.getInt();
+        return new Point(x, y);
+    }
+
+    private static String readString(ByteBuffer buffer) throws SnapshotFormatException {
+        int length = readAmount(buffer);
+        if (length > buffer.remaining()) {
+            // checked before allocating, so a corrupt length can not exhaust the heap
+            throw new SnapshotFormatException("the snapshot ends unexpectedly.");
+        }
+        byte[] characters = new byte[length];
+        buffer.get(characters);
+        return new String(characters, StandardCharsets.US_ASCII);
+    }
+
+    private static <T> T readConstant(ByteBuffer buffer, T[] constants) throws SnapshotFormatException {
+        byte ordinal = buffer.get();
+        if (ordinal < 0 || ordinal >= constants.length) {
+            throw new SnapshotFormatException("unknown type.");
+        }
+        return constants[ordinal];
+    }
+
+    private static boolean hasFrontCoupling(byte couplings) {
+        return (couplings & FRONT_COUPLING) != 0;
+    }
+
+    private static boolean hasBackCoupling(byte couplings) {
+        return (couplings & BACK_COUPLING) != 0;
+    }
+
+    /**
+     * Collects the written data in a buffer and writes it to the channel whenever the buffer is full.
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+        private void put(byte value) throws IOException {
+            ensureRemaining(Byte.BYTES);
+            buffer.put(value);
+        }
+
+        private void putInt(int value) throws IOException {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        private void putPoint(Point point) throws IOException {
+            putInt(point.getX());
+            putInt(point.getY());
+        }
+
+        private void putString(String value) throws IOException {
+            byte[] characters = value.getBytes(StandardCharsets.US_ASCII);
+            putInt(characters.length);
+            for (byte character : characters) {
+                put(character);
+            }
+        }
+
+        private void putCouplings(RollingStock rollingStock) throws IOException {
+            put((byte) ((rollingStock.hasFrontCoupling() ? FRONT_COUPLING : 0)
+                    | (rollingStock.hasBackCoupling() ? BACK_COUPLING : 0)));
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import java.io.IOException;
+
+/**
+ * An exception that is thrown if a file that should be restored is not a valid {@link SimulationSnapshot}.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class SnapshotFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new exception with the specified message.
+     * @param message a description for the cause of this exception.
+     */
+    public SnapshotFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,119 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The connectivity of the tracks of a {@link TrackNetwork} at one point in time. Two tracks are connected if they share
+ * a connection point. The articulation points (cut vertices) of this graph are found once with Tarjan's algorithm, so
+ * checking whether removing a track would split the network takes constant time afterwards.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class TrackConnectivity {
+    private final Map<Track, Integer> indices;
+    /**
+     * For every track, the amount of connected parts its own part of the network splits into if the track is removed.
+     */
+    private final int[] partsAfterRemoval;
+    private int partCount;
+
+    /**
+     * Computes the connectivity of the tracks of a network.
+     * @param network the network.
+     */
+    TrackConnectivity(TrackNetwork network) {
+        List<Track> tracks = new ArrayList<>(network.getAllTracks());
+        this.indices = new HashMap<>();
+        for (int i = 0; i < tracks.size(); i++) {
+            indices.put(tracks.get(i), i);
+        }
+        this.partsAfterRemoval = new int[tracks.size()];
+
+        int[][] neighbours = new int[tracks.size()][];
+        for (int i = 0; i < tracks.size(); i++) {
+            List<Integer> trackNeighbours = new ArrayList<>();
+            for (Point point : tracks.get(i).getConnectionPoints()) {
+                for (Track other : network.getTracksWithEndpointAtPoint(point)) {
+                    if (other != tracks.get(i)) {
+                        trackNeighbours.add(indices.get(other));
+                    }
+                }
+            }
+            neighbours[i] = trackNeighbours.stream().mapToInt(Integer::intValue).toArray();
+        }
+        findArticulationPoints(neighbours);
+    }
+
+    /**
+     * Runs an iterative version of Tarjan's algorithm for finding articulation points.
+     * @param neighbours the neighbours of every track.
+     */
+    private void findArticulationPoints(int[][] neighbours) {
+        int size = neighbours.length;
+        int[] discovery = new int[size];
+        int[] low = new int[size];
+        int[] parents = new int[size];
+        int[] nextNeighbour = new int[size];
+        int[] stack = new int[size];
+        int time = 0;
+
+        for (int root = 0; root < size; root++) {
+            if (discovery[root] != 0) {
+                continue;
+            }
+            partCount++;
+            int stackSize = 0;
+            stack[stackSize++] = root;
+            parents[root] = -1;
+            discovery[root] = ++time;
+            low[root] = time;
+
+            while (stackSize > 0) {
+                int vertex = stack[stackSize - 1];
+                if (nextNeighbour[vertex] < neighbours[vertex].length) {
+                    int neighbour = neighbours[vertex][nextNeighbour[vertex]++];
+                    if (discovery[neighbour] == 0) {
+                        parents[neighbour] = vertex;
+                        discovery[neighbour] = ++time;
+                        low[neighbour] = time;
+                        stack[stackSize++] = neighbour;
+                    } else if (neighbour != parents[vertex]) {
+                        low[vertex] = Math.min(low[vertex], discovery[neighbour]);
+                    }
+                } else {
+                    stackSize--;
+                    int parent = parents[vertex];
+                    if (parent >= 0) {
+                        low[parent] = Math.min(low[parent], low[vertex]);
+                        if (low[vertex] >= discovery[parent]) {
+                            // the subtree of the vertex is only connected to the rest through the parent
+                            partsAfterRemoval[parent]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        // every track except the roots also keeps the part that contains its parent
+        for (int vertex = 0; vertex < size; vertex++) {
+            if (parents[vertex] >= 0) {
+                partsAfterRemoval[vertex]++;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the network is still connected after removing a track.
+     * @param track the track to remove. Must be a track of the network.
+     * @return true if all remaining tracks are connected and false otherwise.
+     */
+    boolean isConnectedWithout(Track track) {
+        return partCount - 1 + partsAfterRemoval[indices.get(track)] <= 1;
+    }
+}
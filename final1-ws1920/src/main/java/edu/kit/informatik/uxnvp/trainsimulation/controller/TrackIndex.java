@@ -0,0 +1,207 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Alignment;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import edu.kit.informatik.uxnvp.trainsimulation.util.IntervalTree;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A spatial index for the tracks of a {@link TrackNetwork}. Tracks are indexed by their connection points and by the
+ * part of the coordinate system they currently cover, which is stored in one interval tree per row (for horizontal
+ * tracks) and per column (for vertical tracks).
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class TrackIndex {
+    private final Map<Point, Set<Track>> tracksByConnectionPoint;
+    private final NavigableMap<Integer, IntervalTree<Track>> horizontalTracksByRow;
+    private final NavigableMap<Integer, IntervalTree<Track>> verticalTracksByColumn;
+
+    /**
+     * Constructs an empty track index.
+     */
+    TrackIndex() {
+        this.tracksByConnectionPoint = new HashMap<>();
+        this.horizontalTracksByRow = new TreeMap<>();
+        this.verticalTracksByColumn = new TreeMap<>();
+    }
+
+    /**
+     * Adds a track to this index.
+     * @param track the track to add.
+     */
+    void add(Track track) {
+        for (Point point : track.getConnectionPoints()) {
+            tracksByConnectionPoint.computeIfAbsent(point, key -> new HashSet<>()).add(track);
+        }
+        addGeometry(track);
+    }
+
+    /**
+     * Removes a track from this index.
+     * @param track the track to remove.
+     */
+    void remove(Track track) {
+        for (Point point : track.getConnectionPoints()) {
+            Set<Track> tracksAtPoint = tracksByConnectionPoint.get(point);
+            tracksAtPoint.remove(track);
+            if (tracksAtPoint.isEmpty()) {
+                tracksByConnectionPoint.remove(point);
+            }
+        }
+        removeGeometry(track);
+    }
+
+    /**
+     * Adds the part of the coordinate system a track currently covers to this index. Must be called after the
+     * geometry of a track changed (e.g. after changing a switch position).
+     * @param track the track whose geometry should be indexed.
+     */
+    void addGeometry(Track track) {
+        Alignment alignment = track.getEndPoint() == null ? null : track.getAlignment();
+        if (alignment == Alignment.HORIZONTAL) {
+            horizontalTracksByRow.computeIfAbsent(track.getStartPoint().getY(), key -> new IntervalTree<>())
+                    .insert(track.getStartPoint().getX(), track.getEndPoint().getX(), track);
+        } else if (alignment == Alignment.VERTICAL) {
+            verticalTracksByColumn.computeIfAbsent(track.getStartPoint().getX(), key -> new IntervalTree<>())
+                    .insert(track.getStartPoint().getY(), track.getEndPoint().getY(), track);
+        }
+        // tracks that are not aligned (e.g. switches without a position) do not cover any point
+    }
+
+    /**
+     * Removes the part of the coordinate system a track currently covers from this index. Must be called before the
+     * geometry of a track changes (e.g. before changing a switch position).
+     * @param track the track whose geometry should be removed from this index.
+     */
+    void removeGeometry(Track track) {
+        Alignment alignment = track.getEndPoint() == null ? null : track.getAlignment();
+        if (alignment == Alignment.HORIZONTAL) {
+            removeFromLine(horizontalTracksByRow, track.getStartPoint().getY(),
+                    track.getStartPoint().getX(), track.getEndPoint().getX(), track);
+        } else if (alignment == Alignment.VERTICAL) {
+            removeFromLine(verticalTracksByColumn, track.getStartPoint().getX(),
+                    track.getStartPoint().getY(), track.getEndPoint().getY(), track);
+        }
+    }
+
+    private static void removeFromLine(Map<Integer, IntervalTree<Track>> lines, int line, int a, int b, Track track) {
+        IntervalTree<Track> tree = lines.get(line);
+        if (tree != null) {
+            tree.remove(a, b, track);
+            if (tree.isEmpty()) {
+                lines.remove(line);
+            }
+        }
+    }
+
+    /**
+     * Finds all tracks that have a connection point at a given point.
+     * @param point the point to find tracks at.
+     * @return a new set of all tracks with a connection point at the given point.
+     */
+    Set<Track> getTracksWithConnectionPoint(Point point) {
+        Set<Track> tracksAtPoint = tracksByConnectionPoint.get(point);
+        return tracksAtPoint == null ? new HashSet<>() : new HashSet<>(tracksAtPoint);
+    }
+
+    /**
+     * Finds all tracks that currently cover a given point.
+     * @param point the point to find tracks at.
+     * @return a new set of all tracks that contain the given point.
+     */
+    Set<Track> getTracksAt(Point point) {
+        Set<Track> result = new HashSet<>();
+        IntervalTree<Track> row = horizontalTracksByRow.get(point.getY());
+        if (row != null) {
+            row.findContaining(point.getX(), result);
+        }
+        IntervalTree<Track> column = verticalTracksByColumn.get(point.getX());
+        if (column != null) {
+            column.findContaining(point.getY(), result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds all points where a track crosses another track, i.e. points that are in the middle of both tracks.
+     * @param track the track to find crossings of.
+     * @return a new set of all points in the middle of the given track that are also in the middle of another track.
+     */
+    Set<Point> findCrossings(Track track) {
+        Set<Point> result = new HashSet<>();
+        Alignment alignment = track.getEndPoint() == null ? null : track.getAlignment();
+        if (alignment == Alignment.HORIZONTAL) {
+            int row = track.getStartPoint().getY();
+            int startX = track.getStartPoint().getX();
+            int endX = track.getEndPoint().getX();
+            NavigableMap<Integer, IntervalTree<Track>> columns = verticalTracksByColumn
+                    .subMap(Math.min(startX, endX), false, Math.max(startX, endX), false);
+            for (Map.Entry<Integer, IntervalTree<Track>> column : columns.entrySet()) {
+                addCrossings(column.getValue(), row, new Point(column.getKey(), row), result);
+            }
+        } else if (alignment == Alignment.VERTICAL) {
+            int column = track.getStartPoint().getX();
+            int startY = track.getStartPoint().getY();
+            int endY = track.getEndPoint().getY();
+            NavigableMap<Integer, IntervalTree<Track>> rows = horizontalTracksByRow
+                    .subMap(Math.min(startY, endY), false, Math.max(startY, endY), false);
+            for (Map.Entry<Integer, IntervalTree<Track>> row : rows.entrySet()) {
+                addCrossings(row.getValue(), column, new Point(column, row.getKey()), result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds all tracks that share at least one point with the part of the coordinate system a track currently covers.
+     * @param track the track to find the neighbours of.
+     * @return a new set of all other tracks that contain a point of the given track.
+     */
+    Set<Track> findTracksSharingPoints(Track track) {
+        Set<Track> result = new HashSet<>();
+        Alignment alignment = track.getEndPoint() == null ? null : track.getAlignment();
+        if (alignment == Alignment.HORIZONTAL) {
+            int row = track.getStartPoint().getY();
+            int startX = track.getStartPoint().getX();
+            int endX = track.getEndPoint().getX();
+            IntervalTree<Track> tracksInRow = horizontalTracksByRow.get(row);
+            if (tracksInRow != null) {
+                tracksInRow.findOverlapping(startX, endX, result);
+            }
+            for (IntervalTree<Track> column : verticalTracksByColumn
+                    .subMap(Math.min(startX, endX), true, Math.max(startX, endX), true).values()) {
+                column.findContaining(row, result);
+            }
+        } else if (alignment == Alignment.VERTICAL) {
+            int column = track.getStartPoint().getX();
+            int startY = track.getStartPoint().getY();
+            int endY = track.getEndPoint().getY();
+            IntervalTree<Track> tracksInColumn = verticalTracksByColumn.get(column);
+            if (tracksInColumn != null) {
+                tracksInColumn.findOverlapping(startY, endY, result);
+            }
+            for (IntervalTree<Track> row : horizontalTracksByRow
+                    .subMap(Math.min(startY, endY), true, Math.max(startY, endY), true).values()) {
+                row.findContaining(column, result);
+            }
+        }
+        result.remove(track);
+        return result;
+    }
+
+    private static void addCrossings(IntervalTree<Track> line, int value, Point point, Set<Point> result) {
+        Set<Track> crossingTracks = new HashSet<>();
+        line.findContaining(value, crossingTracks);
+        if (crossingTracks.stream().anyMatch(crossingTrack -> !crossingTrack.isEndOfTrack(point))) {
+            result.add(point);
+        }
+    }
+}
@@ -2,15 +2,16 @@ package edu.kit.informatik.uxnvp.trainsimulation.controller;
 
 import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
 import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Switch;
 import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
 import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
 import edu.kit.informatik.uxnvp.trainsimulation.util.CollectionsUtility;
+import edu.kit.informatik.uxnvp.trainsimulation.util.IdAllocator;
 
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * A network of connected tracks.
@@ -19,20 +20,26 @@ import java.util.stream.Collectors;
  */
 public class TrackNetwork {
     private final Set<Track> tracks;
+    private final TrackIndex index;
+    private final IdAllocator trackIds;
+    private RailGraph railGraph;
+    private int version;
+    private TrackConnectivity connectivity;
+    private int connectivityVersion;
+    /**
+     * Changes whenever a track is registered or removed, but not when a switch changes its position.
+     */
+    private int layoutVersion;
+    private RoutePlanner routePlanner;
+    private int routePlannerVersion;
 
     /**
      * Constructs an empty track network.
      */
     public TrackNetwork() {
         tracks = new HashSet<>();
-    }
-
-    /**
-     * Constructs a new track network with a given set of tracks.
-     * @param tracks the tracks to start with.
-     */
-    private TrackNetwork(Set<Track> tracks) {
-        this.tracks = tracks;
+        index = new TrackIndex();
+        trackIds = new IdAllocator();
     }
 
     /**
@@ -41,9 +48,7 @@ public class TrackNetwork {
      * @return a set of all tracks with a start-/endpoint at the given point.
      */
     public Set<Track> getTracksWithEndpointAtPoint(Point point) {
-        return tracks.stream()
-                .filter(track -> track.isConnectedTo(point))
-                .collect(Collectors.toSet());
+        return index.getTracksWithConnectionPoint(point);
     }
 
     /**
@@ -52,9 +57,7 @@ public class TrackNetwork {
      * @return a set of all tracks that contain the given point.
      */
     public Set<Track> getTracksAt(Point point) {
-        return tracks.stream()
-                .filter(track -> track.containsPoint(point))
-                .collect(Collectors.toSet());
+        return index.getTracksAt(point);
     }
 
     /**
@@ -71,22 +74,25 @@ public class TrackNetwork {
      * @param track the track to register.
      */
     public void registerTrack(Track track) {
-        track.setId(getNextAvailableTrackId());
-        tracks.add(track);
+        registerTrack(track, trackIds.allocate());
     }
 
     /**
-     * Finds the lowest available track id.
-     * @return the next available track id.
+     * Registers a track in this network with a known identifier, e.g. when restoring a saved network.
+     * The validity and fitting of the track must be checked before!
+     * @param track the track to register.
+     * @param id the identifier of the track. Must be positive and not used by another track of this network.
      */
-    private int getNextAvailableTrackId() {
-        for (int i = 1; i <= tracks.size() + 1; i++) {
-            if (getTrackById(i) == null) {
-                return i;
-            }
+    void registerTrack(Track track, int id) {
+        track.setId(id);
+        trackIds.markUsed(id);
+        tracks.add(track);
+        index.add(track);
+        if (railGraph != null) {
+            railGraph.addTrack(track);
         }
-        // this should never happen as n tracks can not occupy n + 1 ids
-        throw new AssertionError();
+        version++;
+        layoutVersion++;
     }
 
     /**
@@ -113,6 +119,13 @@ public class TrackNetwork {
             return false;
         } else {
             tracks.remove(track);
+            trackIds.release(track.getId());
+            index.remove(track);
+            if (railGraph != null) {
+                railGraph.removeTrack(track);
+            }
+            version++;
+            layoutVersion++;
             return true;
         }
     }
@@ -123,55 +136,90 @@ public class TrackNetwork {
      * @return false if removing the given track would split the network and true otherwise.
      */
     private boolean canRemoveTrack(Track track) {
-        Set<Track> remainingTracks = new HashSet<>(tracks);
-        remainingTracks.remove(track);
+        if (connectivity == null || connectivityVersion != version) {
+            connectivity = new TrackConnectivity(this);
+            connectivityVersion = version;
+        }
+        return connectivity.isConnectedWithout(track);
+    }
 
-        TrackNetwork testTrackNetwork = new TrackNetwork(remainingTracks);
-        return testTrackNetwork.isInterconnected();
+    /**
+     * Returns a read-only set of all tracks in this network.
+     * @return a set of all tracks in this network.
+     */
+    public Set<Track> getAllTracks() {
+        return Collections.unmodifiableSet(tracks);
     }
 
     /**
-     * Checks whether all tracks in this network are connected.
-     * @return true if all tracks in this network are connected and false otherwise.
+     * Changes the position of a switch in this network and keeps the spatial index up to date.
+     * @param switchTrack the switch to change. Must be registered in this network.
+     * @param newEndPoint the new endpoint of the switch. Must be one of the endpoints of the switch.
      */
-    private boolean isInterconnected() {
-        if (tracks.isEmpty()) {
-            return true;
-        } else {
-            Track anyTrack = tracks.stream().findAny().get();
-            Set<Track> reachableTracks = new HashSet<>();
-            Set<Track> yetToWalk = new HashSet<>();
-            yetToWalk.add(anyTrack);
-
-            while (!yetToWalk.isEmpty()) {
-                Track track = yetToWalk.stream().findAny().get();
-                reachableTracks.add(track);
-                yetToWalk.remove(track);
-
-                Set<Point> connectionPoints = track.getConnectionPoints();
-                connectionPoints.forEach(point -> {
-                    Set<Track> otherTracksAtPoint = getTracksWithEndpointAtPoint(point);
-                    otherTracksAtPoint.remove(track);
-
-                    if (!otherTracksAtPoint.isEmpty()) {
-                        Track otherTrackAtPoint = otherTracksAtPoint.stream().findAny().get();
-                        if (!reachableTracks.contains(otherTrackAtPoint)) {
-                            yetToWalk.add(otherTrackAtPoint);
-                        }
-                    }
-                });
-            }
+    public void setSwitch(Switch switchTrack, Point newEndPoint) {
+        Point oldEndPoint = switchTrack.getEndPoint();
+        index.removeGeometry(switchTrack);
+        try {
+            switchTrack.switchTo(newEndPoint);
+        } finally {
+            index.addGeometry(switchTrack);
+        }
+        if (railGraph != null) {
+            railGraph.updateSwitch(switchTrack, oldEndPoint);
+        }
+        version++;
+    }
+
+    /**
+     * Returns the version of this network, which changes whenever a track is registered or removed or a switch
+     * changes its position. Can be used to invalidate data derived from the network.
+     * @return the current version of this network.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Finds all points where a track crosses another track of this network.
+     * @param track the track to find crossings of.
+     * @return a new set of all points that are in the middle of the given track and in the middle of another track.
+     */
+    Set<Point> getCrossings(Track track) {
+        return index.findCrossings(track);
+    }
 
-            return reachableTracks.equals(tracks);
+    /**
+     * Finds all tracks of this network that share at least one point with the active part of a track.
+     * @param track the track to find the neighbours of.
+     * @return a new set of all other tracks that contain a point of the given track.
+     */
+    Set<Track> getTracksSharingPoints(Track track) {
+        return index.findTracksSharingPoints(track);
+    }
+
+    /**
+     * Returns the compiled rail graph of this network. The graph is compiled on the first call and kept up to date
+     * afterwards.
+     * @return the rail graph of this network.
+     */
+    public RailGraph getRailGraph() {
+        if (railGraph == null) {
+            railGraph = new RailGraph(this);
         }
+        return railGraph;
     }
 
     /**
-     * Returns a read-only set of all tracks in this network.
-     * @return a set of all tracks in this network.
+     * Returns the route planner for the current layout of this network. Routes do not depend on the switch positions,
+     * so the planner and the routes it cached are kept until a track is registered or removed.
+     * @return the route planner of this network.
      */
-    public Set<Track> getAllTracks() {
-        return Collections.unmodifiableSet(tracks);
+    public RoutePlanner getRoutePlanner() {
+        if (routePlanner == null || routePlannerVersion != layoutVersion) {
+            routePlanner = new RoutePlanner(this);
+            routePlannerVersion = layoutVersion;
+        }
+        return routePlanner;
     }
 
     /**
@@ -226,8 +274,8 @@ public class TrackNetwork {
      * @return the Track that contains both points or null if there is no Track in this network containing both points.
      */
     private Track getTrackBetween(Point pointOne, Point pointTwo) {
-        return tracks.stream()
-                .filter(track -> track.containsPoint(pointOne) && track.containsPoint(pointTwo))
+        return getTracksAt(pointOne).stream()
+                .filter(track -> track.containsPoint(pointTwo))
                 .findFirst() // there should be one at most
                 .orElse(null);
     }
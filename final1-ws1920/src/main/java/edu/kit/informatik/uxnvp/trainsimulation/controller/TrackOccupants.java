@@ -0,0 +1,146 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A reverse index from tracks to the trains that occupy at least one of their points. Every train is indexed together
+ * with the {@link TrainOccupancy occupancy} it was indexed for and the {@link TrainOccupancy#getTrackVersion() track
+ * version} of that occupancy, so the tracks of a moving train only have to be looked up again when it enters or leaves
+ * a track.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class TrackOccupants {
+    private final Map<Track, Set<Train>> trainsByTrack;
+    private final Map<Train, Entry> entries;
+
+    /**
+     * Constructs an empty index.
+     */
+    TrackOccupants() {
+        this.trainsByTrack = new HashMap<>();
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Checks whether a train is indexed with the current state of an occupancy.
+     * @param train the train to check.
+     * @param occupancy the current occupancy of the train.
+     * @return true if the indexed tracks of the train are still up to date and false otherwise.
+     */
+    boolean isIndexed(Train train, TrainOccupancy occupancy) {
+        Entry entry = entries.get(train);
+        return entry != null && entry.occupancy == occupancy && entry.trackVersion == occupancy.getTrackVersion();
+    }
+
+    /**
+     * Indexes a train with the tracks it currently occupies. Replaces the tracks the train was indexed with before.
+     * @param train the train to index.
+     * @param occupancy the current occupancy of the train.
+     * @param tracks all tracks that contain at least one point of the occupancy.
+     */
+    void index(Train train, TrainOccupancy occupancy, Set<Track> tracks) {
+        Entry oldEntry = entries.put(train, new Entry(occupancy, occupancy.getTrackVersion(), tracks));
+        if (oldEntry != null) {
+            for (Track track : oldEntry.tracks) {
+                if (!tracks.contains(track)) {
+                    removeFromTrack(track, train);
+                }
+            }
+        }
+        for (Track track : tracks) {
+            if (oldEntry == null || !oldEntry.tracks.contains(track)) {
+                trainsByTrack.computeIfAbsent(track, key -> new HashSet<>()).add(train);
+            }
+        }
+    }
+
+    /**
+     * Removes a train from this index and does nothing if it is not indexed.
+     * @param train the train to remove.
+     */
+    void remove(Train train) {
+        Entry entry = entries.remove(train);
+        if (entry != null) {
+            for (Track track : entry.tracks) {
+                removeFromTrack(track, train);
+            }
+        }
+    }
+
+    /**
+     * Removes all trains from this index that are not contained in a collection.
+     * @param trains the trains to keep.
+     */
+    void retainAll(Collection<Train> trains) {
+        Iterator<Map.Entry<Train, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Train, Entry> entry = iterator.next();
+            if (!trains.contains(entry.getKey())) {
+                iterator.remove();
+                for (Track track : entry.getValue().tracks) {
+                    removeFromTrack(track, entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all trains from this index.
+     */
+    void clear() {
+        trainsByTrack.clear();
+        entries.clear();
+    }
+
+    /**
+     * Finds all indexed trains that occupy a point of one of several tracks.
+     * @param tracks the tracks to find the trains on.
+     * @return a new set of the trains.
+     */
+    Set<Train> findTrains(Collection<Track> tracks) {
+        Set<Train> result = new HashSet<>();
+        for (Track track : tracks) {
+            Set<Train> trainsOnTrack = trainsByTrack.get(track);
+            if (trainsOnTrack != null) {
+                result.addAll(trainsOnTrack);
+            }
+        }
+        return result;
+    }
+
+    private void removeFromTrack(Track track, Train train) {
+        Set<Train> trainsOnTrack = trainsByTrack.get(track);
+        if (trainsOnTrack != null) {
+            trainsOnTrack.remove(train);
+            if (trainsOnTrack.isEmpty()) {
+                trainsByTrack.remove(track);
+            }
+        }
+    }
+
+    /**
+     * The tracks a train was indexed with.
+     * @author Max Schweikart
+     * @version 1.0
+     */
+    private static final class Entry {
+        private final TrainOccupancy occupancy;
+        private final int trackVersion;
+        private final Set<Track> tracks;
+
+        private Entry(TrainOccupancy occupancy, int trackVersion, Set<Track> tracks) {
+            this.occupancy = occupancy;
+            this.trackVersion = trackVersion;
+            this.tracks = tracks;
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.PackedPoint;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+
+/**
+ * The locations occupied by a train on the rails, from the head (index 0) to the tail (index {@link #size()} - 1).<br/>
+ * The locations are stored as runs: a run is a straight interval of locations that share their direction and their
+ * interior track, so the location after the first one of a run is always one step against the direction. A train only
+ * needs about one run per track it spans, no matter how long it is. The runs are stored in a ring buffer, so moving the
+ * train by one step only grows or shrinks the runs at both ends.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class TrainOccupancy {
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * For every run, the {@link PackedPoint packed point} of its location closest to the head.
+     */
+    private long[] starts;
+    private Direction[] directions;
+    /**
+     * For every run, the only track that contains the points of the run if they are not endpoints of that track and
+     * null otherwise.
+     */
+    private Track[] interiorTracks;
+    private int[] lengths;
+    private int headRun;
+    private int runAmount;
+    private int size;
+    /**
+     * The location of the head, which is the current location of the train, or null if it has not been built since
+     * the head moved.
+     */
+    private TrainLocation head;
+    /**
+     * Changes whenever the set of tracks containing the occupied points might have changed.
+     */
+    private int trackVersion;
+
+    /**
+     * Constructs an occupancy without any locations. The locations are added with
+     * {@link #addTail(TrainLocation, Track, int)} before the occupancy is used.
+     */
+    TrainOccupancy() {
+        this.starts = new long[INITIAL_CAPACITY];
+        this.directions = new Direction[INITIAL_CAPACITY];
+        this.interiorTracks = new Track[INITIAL_CAPACITY];
+        this.lengths = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Constructs a copy of an occupancy that can be moved independently of it. Only the runs are copied, so this
+     * does not depend on the length of the train.
+     * @param occupancy the occupancy to copy.
+     */
+    TrainOccupancy(TrainOccupancy occupancy) {
+        this.starts = occupancy.starts.clone();
+        this.directions = occupancy.directions.clone();
+        this.interiorTracks = occupancy.interiorTracks.clone();
+        this.lengths = occupancy.lengths.clone();
+        this.headRun = occupancy.headRun;
+        this.runAmount = occupancy.runAmount;
+        this.size = occupancy.size;
+        this.head = occupancy.head;
+        this.trackVersion = occupancy.trackVersion;
+    }
+
+    /**
+     * Adds straight locations behind the tail: the first added location is the given one and every further location
+     * is one step against its direction.
+     * @param location the first location to add.
+     * @param interiorTrack the only track that contains the points of the added locations in its middle or null.
+     * @param amount the amount of locations to add.
+     */
+    void addTail(TrainLocation location, Track interiorTrack, int amount) {
+        boolean wasEmpty = size == 0;
+        addTail(PackedPoint.of(location.getPoint()), location.getDirection(), interiorTrack, amount);
+        if (wasEmpty && amount > 0) {
+            head = location;
+        }
+    }
+
+    /**
+     * Adds straight locations behind the tail like {@link #addTail(TrainLocation, Track, int)}, but without
+     * allocating.
+     * @param point the {@link PackedPoint packed point} of the first location to add.
+     * @param direction the direction of the added locations.
+     * @param interiorTrack the only track that contains the points of the added locations in its middle or null.
+     * @param amount the amount of locations to add.
+     */
+    private void addTail(long point, Direction direction, Track interiorTrack, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        int tailRun = toArrayIndex(runAmount - 1);
+        if (runAmount > 0 && directions[tailRun] == direction && interiorTracks[tailRun] == interiorTrack
+                && getPackedPointAt(tailRun, lengths[tailRun]) == point) {
+            lengths[tailRun] += amount;
+            if (interiorTrack == null) {
+                trackVersion++;
+            }
+        } else {
+            ensureCapacity();
+            int newRun = toArrayIndex(runAmount);
+            setRun(newRun, point, direction, interiorTrack, amount);
+            runAmount++;
+            trackVersion++;
+        }
+        size += amount;
+    }
+
+    /**
+     * Adds a new head location in front of the head. The location of the new head is only built when it is needed.
+     * @param point the {@link PackedPoint packed point} of the new head location.
+     * @param direction the direction of the new head location.
+     * @param interiorTrack the only track that contains the point of the location in its middle or null.
+     */
+    private void addHead(long point, Direction direction, Track interiorTrack) {
+        if (runAmount > 0 && directions[headRun] == direction && interiorTracks[headRun] == interiorTrack
+                && PackedPoint.add(starts[headRun], direction) == point) {
+            starts[headRun] = point;
+            lengths[headRun]++;
+            if (interiorTrack == null) {
+                trackVersion++;
+            }
+        } else {
+            ensureCapacity();
+            headRun = toArrayIndex(-1);
+            setRun(headRun, point, direction, interiorTrack, 1);
+            runAmount++;
+            trackVersion++;
+        }
+        size++;
+        head = null;
+    }
+
+    /**
+     * Drops the head location. The location behind it becomes the new head.
+     */
+    void removeHead() {
+        starts[headRun] = PackedPoint.subtract(starts[headRun], directions[headRun]);
+        lengths[headRun]--;
+        if (lengths[headRun] == 0 || interiorTracks[headRun] == null) {
+            trackVersion++;
+        }
+        if (lengths[headRun] == 0) {
+            interiorTracks[headRun] = null;
+            headRun = toArrayIndex(1);
+            runAmount--;
+        }
+        size--;
+        head = null;
+    }
+
+    /**
+     * Drops the tail location.
+     */
+    private void removeTail() {
+        int tailRun = toArrayIndex(runAmount - 1);
+        lengths[tailRun]--;
+        if (lengths[tailRun] == 0 || interiorTracks[tailRun] == null) {
+            trackVersion++;
+        }
+        if (lengths[tailRun] == 0) {
+            interiorTracks[tailRun] = null;
+            runAmount--;
+        }
+        size--;
+    }
+
+    private void setRun(int run, long start, Direction direction, Track interiorTrack, int length) {
+        starts[run] = start;
+        directions[run] = direction;
+        interiorTracks[run] = interiorTrack;
+        lengths[run] = length;
+    }
+
+    private void ensureCapacity() {
+        if (runAmount < starts.length) {
+            return;
+        }
+        int capacity = 2 * starts.length;
+        long[] newStarts = new long[capacity];
+        Direction[] newDirections = new Direction[capacity];
+        Track[] newInteriorTracks = new Track[capacity];
+        int[] newLengths = new int[capacity];
+        for (int run = 0; run < runAmount; run++) {
+            int arrayIndex = toArrayIndex(run);
+            newStarts[run] = starts[arrayIndex];
+            newDirections[run] = directions[arrayIndex];
+            newInteriorTracks[run] = interiorTracks[arrayIndex];
+            newLengths[run] = lengths[arrayIndex];
+        }
+        starts = newStarts;
+        directions = newDirections;
+        interiorTracks = newInteriorTracks;
+        lengths = newLengths;
+        headRun = 0;
+    }
+
+    /**
+     * Returns the amount of locations occupied by the train, which is its length plus one.
+     * @return the amount of locations occupied by the train.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a number that changes whenever the set of tracks containing the occupied points might have changed.
+     * Moving along the middle of a track keeps the number, so it only changes when the train enters or leaves a track.
+     * @return the current track version of this occupancy.
+     */
+    int getTrackVersion() {
+        return trackVersion;
+    }
+
+    /**
+     * Returns the amount of runs of this occupancy.
+     * @return the amount of runs, counted from the head.
+     */
+    int getRunAmount() {
+        return runAmount;
+    }
+
+    /**
+     * Returns the amount of locations of a run.
+     * @param run the index of the run, counted from the head.
+     * @return the amount of locations of the run.
+     */
+    int getRunLength(int run) {
+        return lengths[toArrayIndex(run)];
+    }
+
+    /**
+     * Returns the direction of all locations of a run.
+     * @param run the index of the run, counted from the head.
+     * @return the direction of the locations of the run.
+     */
+    Direction getRunDirection(int run) {
+        return directions[toArrayIndex(run)];
+    }
+
+    /**
+     * Returns the only track that contains the points of a run in its middle.
+     * @param run the index of the run, counted from the head.
+     * @return the track or null if the points are endpoints of a track or contained by multiple tracks.
+     */
+    Track getRunInteriorTrack(int run) {
+        return interiorTracks[toArrayIndex(run)];
+    }
+
+    /**
+     * Returns the point of a location of a run without allocating.
+     * @param run the index of the run, counted from the head.
+     * @param index the index of the location within the run, counted from the head.
+     * @return the packed point of the location.
+     */
+    long getPackedPoint(int run, int index) {
+        return getPackedPointAt(toArrayIndex(run), index);
+    }
+
+    private long getPackedPointAt(int arrayIndex, long index) {
+        long start = starts[arrayIndex];
+        Direction direction = directions[arrayIndex];
+        return PackedPoint.of((int) (PackedPoint.getX(start) - index * direction.getDx()),
+                (int) (PackedPoint.getY(start) - index * direction.getDy()));
+    }
+
+    /**
+     * Returns an occupied location.
+     * @param index the index of the location, counted from the head.
+     * @return the location at the given index.
+     */
+    TrainLocation getLocation(int index) {
+        if (index == 0) {
+            return getHead();
+        }
+        int run = 0;
+        int remaining = index;
+        while (remaining >= getRunLength(run)) {
+            remaining -= getRunLength(run);
+            run++;
+        }
+        return new TrainLocation(PackedPoint.toPoint(getPackedPoint(run, remaining)), getRunDirection(run));
+    }
+
+    /**
+     * Returns the location of the head of the train. The location is built once after the head moved, so the same
+     * instance is returned until the head moves again.
+     * @return the location of the head of the train or null if this occupancy is empty.
+     */
+    TrainLocation getHead() {
+        if (head == null && size > 0) {
+            head = new TrainLocation(PackedPoint.toPoint(starts[headRun]), directions[headRun]);
+        }
+        return head;
+    }
+
+    /**
+     * Returns the location of the tail of the train.
+     * @return the location of the tail of the train.
+     */
+    TrainLocation getTail() {
+        int tailRun = runAmount - 1;
+        return new TrainLocation(PackedPoint.toPoint(getPackedPoint(tailRun, getRunLength(tailRun) - 1)),
+                getRunDirection(tailRun));
+    }
+
+    /**
+     * Moves the train one step forward by adding a new head location and dropping the tail location.
+     * @param newHead the new head location.
+     * @param interiorTrack the only track that contains the new head point in its middle or null.
+     */
+    void moveForward(TrainLocation newHead, Track interiorTrack) {
+        moveForward(PackedPoint.of(newHead.getPoint()), newHead.getDirection(), interiorTrack);
+        head = newHead;
+    }
+
+    /**
+     * Moves the train one step forward like {@link #moveForward(TrainLocation, Track)}, but without allocating.
+     * @param newHead the {@link PackedPoint packed point} of the new head location.
+     * @param direction the direction of the new head location.
+     * @param interiorTrack the only track that contains the new head point in its middle or null.
+     */
+    void moveForward(long newHead, Direction direction, Track interiorTrack) {
+        removeTail();
+        addHead(newHead, direction, interiorTrack);
+    }
+
+    /**
+     * Moves the train one step backwards by dropping the head location and adding a new tail location.
+     * @param newTail the new tail location.
+     * @param interiorTrack the only track that contains the new tail point in its middle or null.
+     */
+    void moveBackward(TrainLocation newTail, Track interiorTrack) {
+        moveBackward(PackedPoint.of(newTail.getPoint()), newTail.getDirection(), interiorTrack);
+    }
+
+    /**
+     * Moves the train one step backwards like {@link #moveBackward(TrainLocation, Track)}, but without allocating.
+     * @param newTail the {@link PackedPoint packed point} of the new tail location.
+     * @param direction the direction of the new tail location.
+     * @param interiorTrack the only track that contains the new tail point in its middle or null.
+     */
+    void moveBackward(long newTail, Direction direction, Track interiorTrack) {
+        removeHead();
+        addTail(newTail, direction, interiorTrack, 1);
+    }
+
+    /**
+     * Checks whether the train would still fit on the rails after moving backwards to a new tail location, i.e.
+     * whether the new tail point is not occupied by any of the locations behind the new head. Every run is tested as
+     * a whole, so the check does not depend on the length of the train.
+     * @param newTail the new tail location.
+     * @return true if the new tail point is not occupied by the train after moving backwards.
+     */
+    boolean fitsAfterMovingBackward(TrainLocation newTail) {
+        return fitsAfterMovingBackward(PackedPoint.of(newTail.getPoint()));
+    }
+
+    /**
+     * Checks whether the train would still fit on the rails after moving backwards to a new tail point like
+     * {@link #fitsAfterMovingBackward(TrainLocation)}, but without allocating.
+     * @param newTail the {@link PackedPoint packed point} of the new tail location.
+     * @return true if the new tail point is not occupied by the train after moving backwards.
+     */
+    boolean fitsAfterMovingBackward(long newTail) {
+        int x = PackedPoint.getX(newTail);
+        int y = PackedPoint.getY(newTail);
+        // the old head is dropped and the new head is not checked
+        int firstIndex = 2;
+        for (int run = 0; run < runAmount; run++) {
+            int arrayIndex = toArrayIndex(run);
+            long start = starts[arrayIndex];
+            Direction direction = directions[arrayIndex];
+            // the amount of steps against the direction from the start of the run to the point
+            long dx = (long) PackedPoint.getX(start) - x;
+            long dy = (long) PackedPoint.getY(start) - y;
+            long steps = direction.getDx() != 0 ? dx * direction.getDx() : dy * direction.getDy();
+            boolean onRun = direction.getDx() != 0 ? dy == 0 : dx == 0;
+            if (onRun && steps >= Math.max(firstIndex, 0) && steps < lengths[arrayIndex]) {
+                return false;
+            }
+            firstIndex -= lengths[arrayIndex];
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether any point of this occupancy is contained by a track.
+     * @param track the track to check.
+     * @return true if at least one occupied point is on the active part of the track and false otherwise.
+     */
+    boolean occupiesPointOf(Track track) {
+        if (track.getEndPoint() == null) {
+            // a switch without a position does not contain any point
+            return false;
+        }
+        Point trackStart = track.getStartPoint();
+        Point trackEnd = track.getEndPoint();
+        for (int run = 0; run < runAmount; run++) {
+            long first = getPackedPoint(run, 0);
+            long last = getPackedPoint(run, getRunLength(run) - 1);
+            // both the run and the track are axis-aligned, so they intersect if their bounding boxes do
+            if (overlaps(PackedPoint.getX(first), PackedPoint.getX(last), trackStart.getX(), trackEnd.getX())
+                    && overlaps(PackedPoint.getY(first), PackedPoint.getY(last), trackStart.getY(), trackEnd.getY())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean overlaps(int a1, int b1, int a2, int b2) {
+        return Math.max(Math.min(a1, b1), Math.min(a2, b2)) <= Math.min(Math.max(a1, b1), Math.max(a2, b2));
+    }
+
+    private int toArrayIndex(int run) {
+        return Math.floorMod(headRun + run, starts.length);
+    }
+}
@@ -1,14 +1,19 @@
 package edu.kit.informatik.uxnvp.trainsimulation.controller;
 
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.PackedPoint;
 import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
 import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
 import edu.kit.informatik.uxnvp.trainsimulation.model.track.Switch;
 import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
 import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
 import edu.kit.informatik.uxnvp.trainsimulation.util.CollectionsUtility;
+import edu.kit.informatik.uxnvp.trainsimulation.util.ParallelRange;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * A simulation for model trains.
@@ -16,15 +21,100 @@ import java.util.stream.Collectors;
  * @version 1.0
  */
 public class TrainSimulation {
+    /**
+     * The minimum amount of trains that one thread moves in a parallel simulation step.
+     */
+    private static final int MINIMUM_GRAIN_SIZE = 64;
+    /**
+     * The minimum amount of sub-steps that the fast-forward looks ahead.
+     */
+    private static final int MINIMUM_FAST_FORWARD_HORIZON = 16;
+    /**
+     * The maximum amount of sub-steps that the fast-forward looks ahead.
+     */
+    private static final int MAXIMUM_FAST_FORWARD_HORIZON = 1 << 16;
+    /**
+     * The fast-forward waits up to 2^n sub-steps before planning again after planning failed n times in a row.
+     */
+    private static final int MAXIMUM_PLAN_DELAY_EXPONENT = 6;
+
     private final TrackNetwork trackNetwork;
     private final Fleet fleet;
+    private final SimulationOptions options;
+    private final Map<Train, TrainOccupancy> occupancies;
+    /**
+     * The tracks occupied by the trains in {@link #occupancies}.
+     */
+    private final TrackOccupants trackOccupants;
+    /**
+     * Trains on the rails whose occupancies were dropped after a switch changed its position.
+     */
+    private final Set<Train> unindexedTrains;
+    /**
+     * Whether all trains on the rails except the {@link #unindexedTrains} have an occupancy.
+     */
+    private boolean allTrainsIndexed;
+    private final CollisionGrid collisionGrid;
+    private final FastForwardPlanner fastForwardPlanner;
+    private final EventSimulator eventSimulator;
+    private int occupancyVersion;
+    private ForkJoinPool movePool;
 
     /**
      * Constructs a new empty train simulation.
      */
     public TrainSimulation() {
+        this(new SimulationOptions());
+    }
+
+    /**
+     * Constructs a new empty train simulation that uses existing options.
+     * @param options the options of the simulation.
+     */
+    public TrainSimulation(SimulationOptions options) {
         this.trackNetwork = new TrackNetwork();
         this.fleet = new Fleet();
+        this.options = options;
+        this.occupancies = new HashMap<>();
+        this.trackOccupants = new TrackOccupants();
+        this.unindexedTrains = new HashSet<>();
+        // trains might be added to the fleet while they are on the rails, e.g. when loading a snapshot
+        this.allTrainsIndexed = false;
+        this.collisionGrid = new CollisionGrid();
+        this.fastForwardPlanner = new FastForwardPlanner();
+        this.eventSimulator = new EventSimulator();
+        this.occupancyVersion = trackNetwork.getVersion();
+    }
+
+    /**
+     * Constructs an overlay of a simulation for looking ahead. The overlay shares the track network, the options and
+     * the move pool, which are not changed by running steps, and copies the trains on the rails. The occupancies of
+     * the trains are copied as well if they are up to date, so the trains do not have to be walked along again.
+     * @param simulation the simulation to look ahead in. Is not changed by running steps on the overlay.
+     */
+    private TrainSimulation(TrainSimulation simulation) {
+        this.trackNetwork = simulation.trackNetwork;
+        this.fleet = new Fleet();
+        this.options = simulation.options;
+        this.occupancies = new HashMap<>();
+        this.trackOccupants = new TrackOccupants();
+        this.unindexedTrains = new HashSet<>();
+        this.allTrainsIndexed = false;
+        this.collisionGrid = new CollisionGrid();
+        this.fastForwardPlanner = new FastForwardPlanner();
+        this.eventSimulator = new EventSimulator();
+        this.occupancyVersion = trackNetwork.getVersion();
+        this.movePool = simulation.movePool;
+
+        boolean occupanciesUpToDate = simulation.occupancyVersion == trackNetwork.getVersion();
+        for (Train train : simulation.getFleet().getTrainsOnRails()) {
+            Train copy = train.copy();
+            fleet.addTrain(copy);
+            TrainOccupancy occupancy = simulation.occupancies.get(train);
+            if (occupanciesUpToDate && occupancy != null && occupancy.getHead() == train.getCurrentLocation()) {
+                occupancies.put(copy, new TrainOccupancy(occupancy));
+            }
+        }
     }
 
     /**
@@ -34,10 +124,18 @@ public class TrainSimulation {
      */
     public boolean isTrackOccupied(Track track) {
         for (Train train : getFleet().getTrainsOnRails()) {
-            Set<Point> occupiedPoints = findOccupiedPoints(train);
-            for (Point point : occupiedPoints) {
-                if (track.containsPoint(point) && !track.isEndOfTrack(point)) {
+            TrainOccupancy occupancy = getOccupancy(train);
+            for (int run = 0; run < occupancy.getRunAmount(); run++) {
+                Track interiorTrack = occupancy.getRunInteriorTrack(run);
+                if (interiorTrack == track) {
                     return true;
+                } else if (interiorTrack == null) {
+                    for (int i = 0; i < occupancy.getRunLength(run); i++) {
+                        Point point = PackedPoint.toPoint(occupancy.getPackedPoint(run, i));
+                        if (track.containsPoint(point) && !track.isEndOfTrack(point)) {
+                            return true;
+                        }
+                    }
                 }
             }
         }
@@ -45,20 +143,163 @@ public class TrainSimulation {
     }
 
     /**
-     * Finds all points occupied by a train.s
-     * @param train the train to check for occupation.
-     * @return a set of all points occupied by the train.
+     * Puts a train on the rails. The train must fit on the track at the location (see
+     * {@link #fitsOnTrackPut(Train, TrainLocation)}).
+     * @param train the train to put on the rails.
+     * @param location the location of the head of the train.
+     */
+    public void putTrain(Train train, TrainLocation location) {
+        train.setLocation(location);
+        storeOccupancy(train, buildOccupancy(train));
+    }
+
+    /**
+     * Returns the locations occupied by a train on the rails. The occupancy is only built by walking along the train
+     * if the train was moved without this simulation or if the track network changed since it was built.
+     * @param train the train on the rails.
+     * @return the locations occupied by the train.
+     */
+    private TrainOccupancy getOccupancy(Train train) {
+        checkOccupancyVersion();
+        TrainOccupancy occupancy = occupancies.get(train);
+        if (occupancy == null || occupancy.getHead() != train.getCurrentLocation()) {
+            occupancy = buildOccupancy(train);
+            storeOccupancy(train, occupancy);
+        }
+        return occupancy;
+    }
+
+    /**
+     * Drops all occupancies if the track network changed since they were built.
+     */
+    private void checkOccupancyVersion() {
+        if (occupancyVersion != trackNetwork.getVersion()) {
+            // walking back from the heads might lead in other directions now
+            occupancies.clear();
+            trackOccupants.clear();
+            unindexedTrains.clear();
+            allTrainsIndexed = false;
+            occupancyVersion = trackNetwork.getVersion();
+        }
+    }
+
+    /**
+     * Stores the current occupancy of a train and updates the tracks it is indexed with if the train entered or left a
+     * track since it was indexed.
+     * @param train the train on the rails.
+     * @param occupancy the locations occupied by the train.
+     */
+    private void storeOccupancy(Train train, TrainOccupancy occupancy) {
+        occupancies.put(train, occupancy);
+        if (!trackOccupants.isIndexed(train, occupancy)) {
+            trackOccupants.index(train, occupancy, findOccupiedTracks(occupancy));
+        }
+    }
+
+    /**
+     * Drops the occupancy of a train that left the rails.
+     * @param train the train.
+     */
+    private void forgetOccupancy(Train train) {
+        occupancies.remove(train);
+        trackOccupants.remove(train);
+    }
+
+    /**
+     * Finds all tracks that contain at least one point of an occupancy.
+     * @param occupancy the occupancy.
+     * @return a new set of the tracks.
+     */
+    private Set<Track> findOccupiedTracks(TrainOccupancy occupancy) {
+        Set<Track> tracks = new HashSet<>();
+        for (int run = 0; run < occupancy.getRunAmount(); run++) {
+            Track interiorTrack = occupancy.getRunInteriorTrack(run);
+            if (interiorTrack != null) {
+                tracks.add(interiorTrack);
+            } else {
+                for (int i = 0; i < occupancy.getRunLength(run); i++) {
+                    tracks.addAll(getTrackNetwork().getTracksAt(PackedPoint.toPoint(occupancy.getPackedPoint(run, i))));
+                }
+            }
+        }
+        return tracks;
+    }
+
+    /**
+     * Finds all locations occupied by a train by walking back from its head. If the train does not fit on the rails
+     * any more, e.g. because a track behind it was removed, only the locations up to the end of the rails are found
+     * (see {@link #isComplete(Train, TrainOccupancy)}).
+     * @param train the train on the rails.
+     * @return the locations occupied by the train.
+     */
+    private TrainOccupancy buildOccupancy(Train train) {
+        return walkOccupancy(train.getCurrentLocation(), Math.toIntExact(train.getLength() + 1));
+    }
+
+    /**
+     * Checks whether an occupancy contains all locations of a train, which is not the case if the train does not fit
+     * on the rails any more. Such a train can not be moved by its occupancy, so it is moved like a new train.
+     * @param train the train on the rails.
+     * @param occupancy the occupancy of the train.
+     * @return true if the occupancy contains the head and all locations behind it and false otherwise.
+     */
+    private static boolean isComplete(Train train, TrainOccupancy occupancy) {
+        return occupancy.size() > train.getLength();
+    }
+
+    /**
+     * Finds the locations that a train would occupy by walking back from a head location. On the rail graph, the
+     * middle of every track is passed in one go, so the walk only takes a few steps per track.
+     * @param location the location of the head.
+     * @param size the amount of locations to find, which is the length of the train plus one.
+     * @return the locations. Contains less than size locations if walking back leads off the rails.
      */
-    private Set<Point> findOccupiedPoints(Train train) {
-        Set<Point> occupiedPoints = new HashSet<>();
+    private TrainOccupancy walkOccupancy(TrainLocation location, int size) {
+        TrainOccupancy occupancy = new TrainOccupancy();
+        RailGraph railGraph = getRailGraph();
+        RailCursor cursor = railGraph == null ? null : railGraph.locate(location);
 
-        TrainLocation currentLocation = train.getCurrentLocation();
-        occupiedPoints.add(currentLocation.getPoint());
-        for (int i = 0; i < train.getLength(); i++) {
-            currentLocation = trackNetwork.walkStepBackwards(currentLocation);
-            occupiedPoints.add(currentLocation.getPoint());
+        occupancy.addTail(location, cursor == null ? findInteriorTrack(location.getPoint())
+                : cursor.getInteriorTrack(), 1);
+        TrainLocation currentLocation = location;
+        while (occupancy.size() < size) {
+            if (cursor != null) {
+                TrainLocation cursorLocation = cursor.toLocation();
+                int steps = (int) railGraph.skipBackward(cursor, size - occupancy.size());
+                if (steps > 0) {
+                    // all locations up to the back end of the track are in its middle, so they are added in one go
+                    Point firstPoint = cursorLocation.getPoint().subtract(cursorLocation.getDirection().toPoint());
+                    occupancy.addTail(new TrainLocation(firstPoint, cursorLocation.getDirection()), cursor.getTrack(),
+                            steps);
+                } else if (railGraph.stepBackward(cursor)) {
+                    occupancy.addTail(cursor.toLocation(), cursor.getInteriorTrack(), 1);
+                } else {
+                    return occupancy;
+                }
+            } else {
+                currentLocation = trackNetwork.walkStepBackwards(currentLocation);
+                if (currentLocation == null) {
+                    return occupancy;
+                }
+                occupancy.addTail(currentLocation, findInteriorTrack(currentLocation.getPoint()), 1);
+            }
         }
-        return occupiedPoints;
+        return occupancy;
+    }
+
+    /**
+     * Finds the track that a point is in the middle of.
+     * @param point the point to check.
+     * @return the only track containing the point if the point is not an end of that track and null otherwise.
+     */
+    private Track findInteriorTrack(Point point) {
+        Set<Track> tracksAtPoint = getTrackNetwork().getTracksAt(point);
+        // If there are 0 tracks, there is nothing to occupy. If there are 2 tracks this is an endpoint or a crossing.
+        if (tracksAtPoint.size() == 1) {
+            Track track = CollectionsUtility.getFirst(tracksAtPoint);
+            return track.isEndOfTrack(point) ? null : track;
+        }
+        return null;
     }
 
     /**
@@ -68,44 +309,397 @@ public class TrainSimulation {
      * trains involved in the crash.
      */
     public Set<Set<Train>> runStep(int speed) {
-        Set<Train> trainsOnRails = getFleet().getAllTrains().stream()
-                .filter(train -> train.getCurrentLocation() != null)
-                .collect(Collectors.toSet());
-
         Set<Set<Train>> crashes = new HashSet<>();
+        runStep(speed, (recentCrashes, subStep) -> crashes.addAll(recentCrashes));
+        return crashes;
+    }
+
+    /**
+     * Predicts the crashes of a simulation step without changing this simulation. The step is run on an overlay that
+     * shares the track network and the options of this simulation, but has its own copies of the trains on the rails
+     * and of their occupancies.
+     * @param speed the speed to run the simulation with.
+     * @return the crashes that would occur, by the sub-step (starting at 1) they would occur in. A crash is
+     * represented by a set of trains involved in the crash, which are the trains of this simulation.
+     */
+    public SortedMap<Integer, Set<Set<Train>>> predictCrashes(int speed) {
+        TrainSimulation overlay = new TrainSimulation(this);
+        SortedMap<Integer, Set<Set<Train>>> crashesBySubStep = new TreeMap<>();
+        try {
+            overlay.runStep(speed, (recentCrashes, subStep) -> {
+                for (Set<Train> crash : recentCrashes) {
+                    Set<Train> trains = new HashSet<>();
+                    for (Train train : crash) {
+                        trains.add(getFleet().getTrainById(train.getId()));
+                    }
+                    crashesBySubStep.computeIfAbsent(subStep, key -> new HashSet<>()).add(trains);
+                }
+            });
+        } finally {
+            if (overlay.movePool != null && overlay.movePool != movePool) {
+                overlay.movePool.shutdown();
+            }
+        }
+        return crashesBySubStep;
+    }
+
+    /**
+     * Runs a simulation step and reports the crashes of every sub-step.
+     * @param speed the speed to run the simulation with.
+     * @param crashListener receives the crashes and the number of the sub-step (starting at 1) after which they were
+     * found. Fast-forwarded sub-steps are reported together after the last one of them, but the fast-forward stops
+     * before any train would leave the rails, so they do not contain crashes.
+     */
+    private void runStep(int speed, ObjIntConsumer<Set<Set<Train>>> crashListener) {
+        Set<Train> trainsOnRails = new HashSet<>(getFleet().getTrainsOnRails());
+        // forget about trains that were removed from the rails or from the fleet
+        occupancies.keySet().retainAll(trainsOnRails);
+        trackOccupants.retainAll(trainsOnRails);
 
         int stepAmount = Math.abs(speed);
         boolean backwards = speed < 0;
 
-        for (int i = 0; i < stepAmount; i++) {
-            Set<Train> derailedTrains = new HashSet<>();
-            for (Train train : trainsOnRails) {
-                TrainLocation nextLocation = backwards
-                        ? getTrackNetwork().walkStepBackwards(train.getCurrentLocation())
-                        : getTrackNetwork().walkStep(train.getCurrentLocation());
+        RailGraph eventGraph = getEventGraph();
+        if (eventGraph != null && stepAmount > 0
+                && runEventDriven(eventGraph, backwards, stepAmount, crashListener)) {
+            return;
+        }
 
-                if (nextLocation == null || !fitsOnTrack(train, nextLocation)) {
-                    derailedTrains.add(train);
-                    train.setLocation(null);
-                } else {
-                    train.setLocation(nextLocation);
+        RailGraph railGraph = getRailGraph();
+        // cursors at the heads (or tails when moving backwards) of the trains, kept for all sub-steps
+        Map<Train, RailCursor> cursors = new HashMap<>();
+        RailGraph fastForwardGraph = getFastForwardGraph();
+        int horizon = MINIMUM_FAST_FORWARD_HORIZON;
+        int planDelay = 0;
+        int failedPlans = 0;
+
+        int remaining = stepAmount;
+        while (remaining > 0) {
+            int safeSteps = 0;
+            if (fastForwardGraph != null && planDelay-- <= 0) {
+                List<TrainOccupancy> trainOccupancies = new ArrayList<>();
+                boolean allComplete = true;
+                for (Train train : trainsOnRails) {
+                    TrainOccupancy occupancy = getOccupancy(train);
+                    trainOccupancies.add(occupancy);
+                    allComplete &= isComplete(train, occupancy);
                 }
+                // trains that do not fit on the rails any more are moved like new trains, which the plan can not tell
+                safeSteps = !allComplete ? 0 : fastForwardPlanner.findSafeSteps(fastForwardGraph, trainOccupancies,
+                        backwards, Math.min(remaining, horizon));
+                horizon = Math.min(MAXIMUM_FAST_FORWARD_HORIZON,
+                        Math.max(MINIMUM_FAST_FORWARD_HORIZON, 2 * safeSteps));
+                // trains that are close to each other stay close for a while, so planning is retried less often
+                failedPlans = safeSteps == 0 ? Math.min(failedPlans + 1, MAXIMUM_PLAN_DELAY_EXPONENT) : 0;
+                planDelay = failedPlans == 0 ? 0 : 1 << failedPlans;
+            }
+
+            if (safeSteps > 0) {
+                Set<Set<Train>> crashes = runSubSteps(trainsOnRails, railGraph, cursors, backwards, safeSteps, false);
+                remaining -= safeSteps;
+                crashListener.accept(crashes, stepAmount - remaining);
+            } else {
+                Set<Set<Train>> crashes = runSubSteps(trainsOnRails, railGraph, cursors, backwards, 1, true);
+                remaining--;
+                crashListener.accept(crashes, stepAmount - remaining);
             }
-            Set<Set<Train>> recentCrashes = findCrashes();
-            for (Train train : derailedTrains) {
-                findOrCreateSetWithTrain(recentCrashes, train);
+        }
+    }
+
+    /**
+     * Moves all trains on the rails by some locations and de-rails the trains that crashed. Every train is moved by all
+     * locations before the next train is moved, so the trains must not be able to crash into each other if they are
+     * moved by more than one location.
+     * @param trainsOnRails the trains on the rails. Crashed trains are removed.
+     * @param railGraph the rail graph to walk on or null if the walkers of the track network should be used.
+     * @param cursors the cursors at the heads (or tails when moving backwards) of the trains.
+     * @param backwards whether the trains move backwards.
+     * @param steps the amount of locations to move every train by.
+     * @param checkCrashes whether the trains have to be checked for crashes after moving. Trains that leave the rails
+     * are always treated as crashed.
+     * @return a set of all crashes that occurred in these sub-steps.
+     */
+    private Set<Set<Train>> runSubSteps(Set<Train> trainsOnRails, RailGraph railGraph, Map<Train, RailCursor> cursors,
+                                        boolean backwards, int steps, boolean checkCrashes) {
+        // everything the trains share is prepared here, so moving the trains does not change shared state
+        List<Train> trains = new ArrayList<>(trainsOnRails);
+        TrainOccupancy[] trainOccupancies = new TrainOccupancy[trains.size()];
+        RailCursor[] trainCursors = new RailCursor[trains.size()];
+        boolean[] incomplete = new boolean[trains.size()];
+        for (int i = 0; i < trains.size(); i++) {
+            TrainOccupancy occupancy = getOccupancy(trains.get(i));
+            trainOccupancies[i] = occupancy;
+            incomplete[i] = !isComplete(trains.get(i), occupancy);
+            if (railGraph != null && !incomplete[i]) {
+                trainCursors[i] = cursors.computeIfAbsent(trains.get(i),
+                        key -> railGraph.locate(backwards ? occupancy.getTail() : occupancy.getHead()));
             }
-            crashes.addAll(recentCrashes);
+        }
 
-            // de-rail crashed trains
-            for (Set<Train> crash : recentCrashes) {
-                for (Train train : crash) {
-                    train.setLocation(null);
-                    trainsOnRails.remove(train);
+        boolean[] moved = new boolean[trains.size()];
+        forEachTrain(trains.size(), index -> {
+            Train train = trains.get(index);
+            boolean trainMoved = true;
+            int step = 0;
+            if (incomplete[index]) {
+                // like a new train, the train stays on the rails if it fits behind its next location
+                trainMoved = moveToNextLocation(train, backwards);
+                step++;
+            }
+            for (; step < steps && trainMoved; step++) {
+                if (trainCursors[index] == null && trainOccupancies[index].getHead() != train.getCurrentLocation()) {
+                    // the train was moved like a new one, so its occupancy is outdated
+                    trainOccupancies[index] = buildOccupancy(train);
                 }
+                trainMoved = backwards
+                        ? moveBackward(train, trainOccupancies[index], railGraph, trainCursors[index])
+                        : moveForward(train, trainOccupancies[index], railGraph, trainCursors[index]);
+            }
+            if (trainMoved && trainCursors[index] != null) {
+                // trains moved by cursors only get a new location once all steps are done
+                train.setLocation(trainOccupancies[index].getHead());
+            } else if (trainMoved && trainOccupancies[index].getHead() != train.getCurrentLocation()) {
+                // the train was moved like a new one in the last sub-step, but it has to be indexed where it is now
+                trainOccupancies[index] = buildOccupancy(train);
+            }
+            moved[index] = trainMoved;
+        });
+
+        Set<Train> derailedTrains = new HashSet<>();
+        for (int i = 0; i < trains.size(); i++) {
+            if (moved[i]) {
+                storeOccupancy(trains.get(i), trainOccupancies[i]);
+            } else {
+                derailedTrains.add(trains.get(i));
+                trains.get(i).setLocation(null);
+                forgetOccupancy(trains.get(i));
             }
         }
-        return crashes;
+        Set<Set<Train>> recentCrashes = checkCrashes ? findCrashes() : new HashSet<>();
+        for (Train train : derailedTrains) {
+            findOrCreateSetWithTrain(recentCrashes, train);
+        }
+
+        // de-rail crashed trains
+        for (Set<Train> crash : recentCrashes) {
+            for (Train train : crash) {
+                train.setLocation(null);
+                forgetOccupancy(train);
+                trainsOnRails.remove(train);
+            }
+        }
+        return recentCrashes;
+    }
+
+    /**
+     * Runs a simulation step with the {@link EventSimulator} instead of moving the trains sub-step by sub-step.
+     * @param railGraph the rail graph of the network. Must be regular.
+     * @param backwards whether the trains move backwards.
+     * @param steps the amount of sub-steps to run.
+     * @param crashListener receives the crashes and the number of the sub-step (starting at 1) they occurred in.
+     * @return true if the step was run and false if the event simulator can not run it because a train is not on the
+     * rail graph or does not fit on the rails. Nothing is changed in that case.
+     */
+    private boolean runEventDriven(RailGraph railGraph, boolean backwards, int steps,
+                                   ObjIntConsumer<Set<Set<Train>>> crashListener) {
+        // the trains are kept in the order of the fleet, so the crashes are grouped like in the reference implementation
+        List<Train> trains = new ArrayList<>(getFleet().getTrainsOnRails());
+        List<TrainOccupancy> trainOccupancies = new ArrayList<>();
+        for (Train train : trains) {
+            TrainOccupancy occupancy = getOccupancy(train);
+            if (!isComplete(train, occupancy)) {
+                // the train does not fit on the rails any more, so it is moved like a new train by the sub-steps
+                return false;
+            }
+            trainOccupancies.add(occupancy);
+        }
+        TrainOccupancy[] newOccupancies = new TrainOccupancy[trains.size()];
+        SortedMap<Integer, Set<Set<Train>>> crashesBySubStep = eventSimulator.run(railGraph, trains,
+                trainOccupancies, backwards, steps, newOccupancies);
+        if (crashesBySubStep == null) {
+            return false;
+        }
+
+        for (int i = 0; i < trains.size(); i++) {
+            if (newOccupancies[i] == null) {
+                trains.get(i).setLocation(null);
+                forgetOccupancy(trains.get(i));
+            } else {
+                trains.get(i).setLocation(newOccupancies[i].getHead());
+                storeOccupancy(trains.get(i), newOccupancies[i]);
+            }
+        }
+        for (Map.Entry<Integer, Set<Set<Train>>> entry : crashesBySubStep.entrySet()) {
+            crashListener.accept(entry.getValue(), entry.getKey());
+        }
+        return true;
+    }
+
+    /**
+     * Returns the rail graph that is used by the {@link EventSimulator}.
+     * @return the rail graph or null if the options do not allow running steps event-driven or if the rail graph
+     * does not represent the network exactly.
+     */
+    private RailGraph getEventGraph() {
+        if (!options.isEventDrivenEnabled()) {
+            return null;
+        }
+        RailGraph railGraph = trackNetwork.getRailGraph();
+        return railGraph.isRegular() ? railGraph : null;
+    }
+
+    /**
+     * Returns the rail graph that is used for finding the sub-steps that can be run without checking for crashes.
+     * @return the rail graph or null if the options do not allow fast-forwarding or if the rail graph does not
+     * represent the network exactly.
+     */
+    private RailGraph getFastForwardGraph() {
+        if (!options.isFastForwardEnabled()) {
+            return null;
+        }
+        RailGraph railGraph = trackNetwork.getRailGraph();
+        return railGraph.isRegular() ? railGraph : null;
+    }
+
+    /**
+     * Runs an action for every train that is moved in a simulation step. The actions are run by the move pool if the
+     * options allow more than one thread and if there are enough trains to make splitting the work worthwhile.
+     * @param trainAmount the amount of trains.
+     * @param action the action to run for the index of every train. Must not change state shared by the trains.
+     */
+    private void forEachTrain(int trainAmount, IntConsumer action) {
+        int parallelism = options.getParallelism();
+        if (parallelism <= 1 && movePool != null) {
+            // the threads are not needed any more
+            shutdown();
+        }
+        if (parallelism <= 1 || trainAmount <= MINIMUM_GRAIN_SIZE) {
+            for (int i = 0; i < trainAmount; i++) {
+                action.accept(i);
+            }
+        } else {
+            // the pool is shared with overlays, which might have shut it down
+            if (movePool == null || movePool.isShutdown() || movePool.getParallelism() != parallelism) {
+                if (movePool != null) {
+                    movePool.shutdown();
+                }
+                movePool = new ForkJoinPool(parallelism);
+            }
+            // a few parts per thread, so threads that finish early can steal work from the others
+            int grainSize = Math.max(MINIMUM_GRAIN_SIZE, trainAmount / (4 * parallelism));
+            movePool.invoke(new ParallelRange(0, trainAmount, grainSize, action));
+        }
+    }
+
+    /**
+     * Stops the threads of the move pool. The simulation can still be used, the threads are started again when they
+     * are needed. Should be called when a simulation is not used any more, e.g. when it is replaced by a restored one.
+     */
+    public void shutdown() {
+        if (movePool != null) {
+            movePool.shutdown();
+            movePool = null;
+        }
+    }
+
+    /**
+     * Moves a train one step forward. Only the new head location has to be found: all other locations of a train that
+     * fits on the rails are still unique after moving forward. When moving by a cursor, the location of the train is
+     * not updated, so the caller has to set it to the head of the occupancy after the last step.
+     * @param train the train to move.
+     * @param occupancy the locations occupied by the train.
+     * @param railGraph the rail graph to walk on or null if the walkers of the track network should be used.
+     * @param head a cursor at the head of the train or null if the walkers of the track network should be used.
+     * @return true if the train was moved and false if it left the rails.
+     */
+    private boolean moveForward(Train train, TrainOccupancy occupancy, RailGraph railGraph, RailCursor head) {
+        if (head != null) {
+            if (!railGraph.stepForward(head)) {
+                return false;
+            }
+            occupancy.moveForward(head.getPackedPoint(), head.getDirection(), head.getInteriorTrack());
+            return true;
+        }
+
+        TrainLocation nextLocation = getTrackNetwork().walkStep(occupancy.getHead());
+        if (nextLocation == null) {
+            return false;
+        } else if (!occupancy.getHead().equals(getTrackNetwork().walkStepBackwards(nextLocation))) {
+            // the tracks overlap here, so the train has to be checked like a new one
+            return moveToLocation(train, nextLocation);
+        }
+        occupancy.moveForward(nextLocation, findInteriorTrack(nextLocation.getPoint()));
+        train.setLocation(occupancy.getHead());
+        return true;
+    }
+
+    /**
+     * Moves a train one step backwards. The location behind the head becomes the new head, so only the new tail
+     * location has to be found and checked. When moving by a cursor, the location of the train is not updated, so the
+     * caller has to set it to the head of the occupancy after the last step.
+     * @param train the train to move.
+     * @param occupancy the locations occupied by the train.
+     * @param railGraph the rail graph to walk on or null if the walkers of the track network should be used.
+     * @param tail a cursor at the tail of the train or null if the walkers of the track network should be used.
+     * @return true if the train was moved and false if it left the rails or crashed into itself.
+     */
+    private boolean moveBackward(Train train, TrainOccupancy occupancy, RailGraph railGraph, RailCursor tail) {
+        if (tail != null) {
+            if (!railGraph.stepBackward(tail)) {
+                return false;
+            }
+            long newTail = tail.getPackedPoint();
+            if (!occupancy.fitsAfterMovingBackward(newTail)) {
+                return false;
+            }
+            occupancy.moveBackward(newTail, tail.getDirection(), tail.getInteriorTrack());
+            return true;
+        }
+
+        TrainLocation nextLocation = getTrackNetwork().walkStepBackwards(occupancy.getHead());
+        if (nextLocation == null) {
+            return false;
+        } else if (!nextLocation.equals(occupancy.getLocation(1))) {
+            // the tracks overlap here, so the train has to be checked like a new one
+            return moveToLocation(train, nextLocation);
+        }
+        TrainLocation newTail = getTrackNetwork().walkStepBackwards(occupancy.getTail());
+        if (newTail == null || !occupancy.fitsAfterMovingBackward(newTail)) {
+            return false;
+        }
+        occupancy.moveBackward(newTail, findInteriorTrack(newTail.getPoint()));
+        train.setLocation(occupancy.getHead());
+        return true;
+    }
+
+    /**
+     * Moves a train one step like a new train: the head walks one step and the train is checked at the new location.
+     * This is how the reference implementation moves every train, so it is used for trains that can not be moved by
+     * their occupancy.
+     * @param train the train to move.
+     * @param backwards whether the train moves backwards.
+     * @return true if the train was moved and false if it left the rails or does not fit on the track any more.
+     */
+    private boolean moveToNextLocation(Train train, boolean backwards) {
+        TrainLocation nextLocation = backwards
+                ? getTrackNetwork().walkStepBackwards(train.getCurrentLocation())
+                : getTrackNetwork().walkStep(train.getCurrentLocation());
+        return nextLocation != null && moveToLocation(train, nextLocation);
+    }
+
+    /**
+     * Moves a train to a new head location after checking whether it fits on the track there.
+     * @param train the train to move.
+     * @param location the new location of the head of the train.
+     * @return true if the train was moved and false if it does not fit on the track at the location.
+     */
+    private boolean moveToLocation(Train train, TrainLocation location) {
+        if (!fitsOnTrack(train, location)) {
+            return false;
+        }
+        // the occupancy no longer matches the head, so it is rebuilt the next time it is needed
+        train.setLocation(location);
+        return true;
     }
 
     /**
@@ -116,20 +710,46 @@ public class TrainSimulation {
      * @return true if there is enough TODO rail for the train.
      */
     public boolean fitsOnTrack(Train train, TrainLocation location) {
-        Set<Point> uniquePoints = new HashSet<>();
-        TrainLocation currentLocation = location;
-        for (int i = 0; i < train.getLength(); i++) {
-            currentLocation = getTrackNetwork().walkStepBackwards(currentLocation);
-            if (currentLocation == null) {
-                return false;
-            } else {
-                uniquePoints.add(currentLocation.getPoint());
-            }
+        TrainOccupancy occupancy = walkBehindHead(train, location);
+        if (occupancy == null) {
+            return false;
         }
 
         // If the tracks combine to a circle, the train might crash into itself. If that's the case, different parts of
-        // it are on the same point. Thus, there are less unique points occupied by this train.
-        return uniquePoints.size() == train.getLength();
+        // it are on the same point. Thus, different runs of the train overlap.
+        OverlapSweep overlapSweep = new OverlapSweep();
+        for (int run = 0; run < occupancy.getRunAmount(); run++) {
+            overlapSweep.addRun(occupancy, run, run);
+        }
+        return !overlapSweep.hasOverlaps();
+    }
+
+    /**
+     * Finds the locations that a train would occupy behind a head location.
+     * @param train the train.
+     * @param location the location of the head.
+     * @return the locations behind the head or null if the train does not fit on the rails there.
+     */
+    private TrainOccupancy walkBehindHead(Train train, TrainLocation location) {
+        TrainOccupancy occupancy = walkOccupancy(location, Math.toIntExact(train.getLength() + 1));
+        if (!isComplete(train, occupancy)) {
+            return null;
+        }
+        occupancy.removeHead();
+        return occupancy;
+    }
+
+    /**
+     * Returns the rail graph of the track network if the options allow using it and if it represents the network
+     * exactly.
+     * @return the rail graph or null if the walkers of the track network should be used.
+     */
+    private RailGraph getRailGraph() {
+        if (!options.isRailGraphEnabled()) {
+            return null;
+        }
+        RailGraph railGraph = trackNetwork.getRailGraph();
+        return railGraph.isRegular() ? railGraph : null;
     }
 
     /**
@@ -140,68 +760,126 @@ public class TrainSimulation {
      * @return true if there is enough TODO rail for the train.
      */
     public boolean fitsOnTrackPut(Train train, TrainLocation location) {
-        Set<Point> uniquePoints = new HashSet<>();
-        Set<Point> alreadyOccupiedPoints = getFleet().getTrainsOnRails().stream()
-                .map(this::findOccupiedPoints)
-                .flatMap(Set::stream)
-                .collect(Collectors.toSet());
+        TrainOccupancy occupancy = walkBehindHead(train, location);
+        return occupancy != null && isFreeOfTrains(occupancy);
+    }
 
-        TrainLocation currentLocation = location;
-        for (int i = 0; i < train.getLength(); i++) {
-            currentLocation = getTrackNetwork().walkStepBackwards(currentLocation);
-            if (currentLocation == null) {
-                return false;
-            } else {
-                uniquePoints.add(currentLocation.getPoint());
+    /**
+     * Checks whether a train restored from a snapshot can be put on the rails at a location. Like when putting a train,
+     * its head must be on a track in its direction, and like in {@link #fitsOnTrackPut(Train, TrainLocation)}, the
+     * train must not occupy a point or a track that a train on the rails occupies and must not occupy a point twice.
+     * The rails behind it may end early, though: tracks may have been deleted behind a train on the rails, which then
+     * leaves the rails in the next step.
+     * @param train the train to check.
+     * @param location the location of the head of the train.
+     * @return whether the train can be put on the rails at the location.
+     */
+    boolean fitsOnTrackRestore(Train train, TrainLocation location) {
+        if (trackNetwork.getTracksAt(location.getPoint()).stream()
+                .noneMatch(track -> track.getAlignment() == location.getDirection().getAlignment())) {
+            return false;
+        }
+        TrainOccupancy occupancy = walkOccupancy(location, Math.toIntExact(train.getLength() + 1));
+        occupancy.removeHead();
+        return isFreeOfTrains(occupancy);
+    }
 
-                // check for track occupations
-                Set<Track> tracksAtCurrentPoint = getTrackNetwork().getTracksAt(currentLocation.getPoint());
-                if (tracksAtCurrentPoint.stream().anyMatch(this::isTrackOccupied)) {
-                    return false;
+    /**
+     * Checks whether the locations behind the head of a train are free of the trains on the rails and of the train
+     * itself.
+     * @param occupancy the locations behind the head of the train.
+     * @return whether no point or track of the locations is occupied by a train on the rails or twice by the train.
+     */
+    private boolean isFreeOfTrains(TrainOccupancy occupancy) {
+        OverlapSweep overlapSweep = new OverlapSweep();
+        Set<Track> occupiedTracks = new HashSet<>();
+        for (Train trainOnRails : getFleet().getTrainsOnRails()) {
+            TrainOccupancy otherOccupancy = getOccupancy(trainOnRails);
+            // the trains on the rails are one owner, so only overlaps with the new train are found
+            overlapSweep.addOccupancy(otherOccupancy, 0);
+            for (int run = 0; run < otherOccupancy.getRunAmount(); run++) {
+                if (otherOccupancy.getRunInteriorTrack(run) != null) {
+                    occupiedTracks.add(otherOccupancy.getRunInteriorTrack(run));
+                } else {
+                    for (int i = 0; i < otherOccupancy.getRunLength(run); i++) {
+                        Point point = PackedPoint.toPoint(otherOccupancy.getPackedPoint(run, i));
+                        getTrackNetwork().getTracksAt(point).stream()
+                                .filter(track -> !track.isEndOfTrack(point))
+                                .forEach(occupiedTracks::add);
+                    }
                 }
+            }
+        }
 
-                // check for point occupations
-                if (alreadyOccupiedPoints.contains(currentLocation.getPoint())) {
+        for (int run = 0; run < occupancy.getRunAmount(); run++) {
+            // check for track occupations
+            Track interiorTrack = occupancy.getRunInteriorTrack(run);
+            if (interiorTrack != null) {
+                if (occupiedTracks.contains(interiorTrack)) {
                     return false;
                 }
+            } else {
+                for (int i = 0; i < occupancy.getRunLength(run); i++) {
+                    Set<Track> tracksAtPoint = getTrackNetwork()
+                            .getTracksAt(PackedPoint.toPoint(occupancy.getPackedPoint(run, i)));
+                    if (tracksAtPoint.stream().anyMatch(occupiedTracks::contains)) {
+                        return false;
+                    }
+                }
             }
+            overlapSweep.addRun(occupancy, run, run + 1);
         }
 
-        // If the tracks combine to a circle, the train might crash into itself. If that's the case, different parts of
-        // it are on the same point. Thus, there are less unique points occupied by this train.
-        return uniquePoints.size() == train.getLength();
+        // check for point occupations by other trains and by the train itself
+        return !overlapSweep.hasOverlaps();
     }
 
     private Set<Set<Train>> findCrashes() {
+        Collection<Train> trains = getFleet().getTrainsOnRails();
+        if (options.isCollisionGridEnabled()) {
+            trains = findCrashingTrainsOnGrid();
+        }
+        return findCrashes(trains, this::getOccupancy);
+    }
+
+    /**
+     * Finds all crashes between some trains like the reference implementation: a train that occupies a point or the
+     * middle of a track that an earlier train occupies crashes into the crash of that earlier train. The crashes
+     * depend on the order of the trains, so the trains have to be in the order of the trains on the rails of the
+     * fleet. Trains that do not crash may be left out, as they do not occupy anything that a crashing train occupies.
+     * @param trains the trains to check, in the order of the trains on the rails.
+     * @param occupancies the locations occupied by every train.
+     * @return a set of all crashes. A crash is represented by a set of trains involved in the crash.
+     */
+    static Set<Set<Train>> findCrashes(Collection<Train> trains, Function<Train, TrainOccupancy> occupancies) {
         Set<Set<Train>> crashes = new HashSet<>();
 
         // check if there are any two trains that (a) are on the same track or (b) have a point in common
         Map<Track, Train> trackTrainMap = new HashMap<>();
         Map<Point, Train> pointTrainMap = new HashMap<>();
 
-        for (Train train : getFleet().getTrainsOnRails()) {
-            for (Point point : findOccupiedPoints(train)) {
-                // point occupation
-                if (pointTrainMap.containsKey(point) && pointTrainMap.get(point) != train) {
-                    Set<Train> crash = findOrCreateSetWithTrain(crashes, pointTrainMap.get(point));
-                    crash.add(train);
-                } else {
-                    pointTrainMap.put(point, train);
+        for (Train train : trains) {
+            TrainOccupancy occupancy = occupancies.apply(train);
+            for (int run = 0; run < occupancy.getRunAmount(); run++) {
+                for (int i = 0; i < occupancy.getRunLength(run); i++) {
+                    Point point = PackedPoint.toPoint(occupancy.getPackedPoint(run, i));
+                    // point occupation
+                    if (pointTrainMap.containsKey(point) && pointTrainMap.get(point) != train) {
+                        Set<Train> crash = findOrCreateSetWithTrain(crashes, pointTrainMap.get(point));
+                        crash.add(train);
+                    } else {
+                        pointTrainMap.put(point, train);
+                    }
                 }
 
-                // track occupation
-                Set<Track> tracksAtPoint = getTrackNetwork().getTracksAt(point);
-                // If there are 0 tracks, we don't need to check. If there are 2 tracks this is an endpoint.
-                // There can not be more than two tracks at a point. -> only check if there is exactly one track
-                if (tracksAtPoint.size() == 1) {
-                    Track track = CollectionsUtility.getFirst(tracksAtPoint);
-                    if (!track.isEndOfTrack(point)) {
-                        if (trackTrainMap.containsKey(track) && trackTrainMap.get(track) != train) {
-                            Set<Train> crash = findOrCreateSetWithTrain(crashes, trackTrainMap.get(track));
-                            crash.add(train);
-                        } else {
-                            trackTrainMap.put(track, train);
-                        }
+                // track occupation (only points in the middle of exactly one track occupy a track)
+                Track track = occupancy.getRunInteriorTrack(run);
+                if (track != null) {
+                    if (trackTrainMap.containsKey(track) && trackTrainMap.get(track) != train) {
+                        Set<Train> crash = findOrCreateSetWithTrain(crashes, trackTrainMap.get(track));
+                        crash.add(train);
+                    } else {
+                        trackTrainMap.put(track, train);
                     }
                 }
             }
@@ -209,7 +887,20 @@ public class TrainSimulation {
         return crashes;
     }
 
-    private Set<Train> findOrCreateSetWithTrain(Set<Set<Train>> crashes, Train train) {
+    /**
+     * Finds the trains on the rails that crash with the {@link CollisionGrid}.
+     * @return the crashing trains in the order of the trains on the rails.
+     */
+    private List<Train> findCrashingTrainsOnGrid() {
+        Set<Train> trainsOnRails = getFleet().getTrainsOnRails();
+        collisionGrid.reset(trainsOnRails.stream().mapToInt(Train::getId).max().orElse(0));
+        for (Train train : trainsOnRails) {
+            collisionGrid.addTrain(train, getOccupancy(train));
+        }
+        return collisionGrid.getCrashingTrains();
+    }
+
+    private static Set<Train> findOrCreateSetWithTrain(Set<Set<Train>> crashes, Train train) {
         for (Set<Train> crash : crashes) {
             if (crash.contains(train)) {
                 return crash;
@@ -228,6 +919,14 @@ public class TrainSimulation {
         return trackNetwork;
     }
 
+    /**
+     * Returns the options of this simulation.
+     * @return the options of this simulation.
+     */
+    public SimulationOptions getOptions() {
+        return options;
+    }
+
     /**
      * Returns the fleet of this simulation.
      * @return the fleet of this simulation.s
@@ -237,20 +936,44 @@ public class TrainSimulation {
     }
 
     /**
-     * Changes a switch position and de-rails affected trains.
+     * Changes a switch position and de-rails affected trains. The trains on the switch are found with the
+     * {@link TrackOccupants reverse index}, so only the trains near the switch are touched.
      * @param switchTrack the switch track to switch.
      * @param newEndPoint the new endpoint of the switch.
      */
     public void setSwitch(Switch switchTrack, Point newEndPoint) {
-        for (Train train : getFleet().getTrainsOnRails()) {
-            for (Point occupiedPoint : findOccupiedPoints(train)) {
-                if (switchTrack.containsPoint(occupiedPoint)) {
-                    // de-rail
-                    train.setLocation(null);
-                    // todo we could stop the point iteration here but break; is bad practise
-                }
+        indexAllTrains();
+        for (Train train : trackOccupants.findTrains(Collections.singleton(switchTrack))) {
+            if (getFleet().getTrainsOnRails().contains(train)) {
+                // de-rail
+                train.setLocation(null);
+            }
+            forgetOccupancy(train);
+        }
+        trackNetwork.setSwitch(switchTrack, newEndPoint);
+
+        // The network only changed at the points of the switch, and the trains on its old position left the rails.
+        // Thus, only the trains on its new position might occupy other locations now.
+        occupancyVersion = trackNetwork.getVersion();
+        for (Train train : trackOccupants.findTrains(trackNetwork.getTracksSharingPoints(switchTrack))) {
+            forgetOccupancy(train);
+            unindexedTrains.add(train);
+        }
+    }
+
+    /**
+     * Makes sure that every train on the rails is indexed with its current occupancy. Only the trains that are not
+     * indexed yet are walked along.
+     */
+    private void indexAllTrains() {
+        checkOccupancyVersion();
+        Collection<Train> trainsToIndex = allTrainsIndexed ? unindexedTrains : getFleet().getTrainsOnRails();
+        for (Train train : trainsToIndex) {
+            if (train.getCurrentLocation() != null && getFleet().getTrainsOnRails().contains(train)) {
+                getOccupancy(train);
             }
         }
-        switchTrack.switchTo(newEndPoint);
+        unindexedTrains.clear();
+        allTrainsIndexed = true;
     }
 }
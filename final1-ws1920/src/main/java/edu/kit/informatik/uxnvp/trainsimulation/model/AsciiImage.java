@@ -1,6 +1,9 @@
 package edu.kit.informatik.uxnvp.trainsimulation.model;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * An ascii art image.
@@ -36,6 +39,29 @@ public class AsciiImage {
         return lines[lineIndex];
     }
 
+    /**
+     * Returns a read-only view on the lines of this ascii image, so they can be printed one by one.
+     * @return the lines of this ascii image from the top to the bottom.
+     */
+    public List<String> getLines() {
+        return Collections.unmodifiableList(Arrays.asList(lines));
+    }
+
+    /**
+     * Writes this ascii image line by line, without building its string representation first. The written text is
+     * the same as {@link #toString()}.
+     * @param destination the destination to write the lines to.
+     * @throws IOException if the destination can not be written.
+     */
+    public void writeTo(Appendable destination) throws IOException {
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) {
+                destination.append('\n');
+            }
+            destination.append(lines[i]);
+        }
+    }
+
     /**
      * Concatenates two ascii images with one whitespace in between. If the images do not have the same height,
      * whitespace-lines are inserted at the top. Neither of the images is modified.
@@ -59,6 +85,43 @@ public class AsciiImage {
         return new AsciiImage(newLines);
     }
 
+    /**
+     * Concatenates several ascii images with one whitespace in between. The result is the same as concatenating the
+     * images one after another with {@link #concat(AsciiImage)}, but every line of the result is built only once: the
+     * height is known up front and images that are lower are padded at the top while the lines are built.
+     * @param images the images to concatenate. None of them is modified.
+     * @return a new ascii image that contains the concatenated images. Is empty if there are no images.
+     */
+    public static AsciiImage concat(List<AsciiImage> images) {
+        int height = 0;
+        int width = 0;
+        for (AsciiImage image : images) {
+            height = Math.max(height, image.getHeight());
+            width += image.getWidth() + 1;
+        }
+
+        String[] newLines = new String[height];
+        StringBuilder builder = new StringBuilder(width);
+        for (int i = 0; i < height; i++) {
+            builder.setLength(0);
+            boolean first = true;
+            for (AsciiImage image : images) {
+                if (!first) {
+                    builder.append(' ');
+                }
+                first = false;
+                int insertLineAmount = height - image.getHeight();
+                if (i < insertLineAmount) {
+                    appendEmptyLine(builder, image.getWidth());
+                } else {
+                    builder.append(image.getLine(i - insertLineAmount));
+                }
+            }
+            newLines[i] = builder.toString();
+        }
+        return new AsciiImage(newLines);
+    }
+
     /**
      * Extends the height of this ascii image to a given height without modifying this object. This method will insert
      * empty lines at the top (low indices) of this image.
@@ -108,10 +171,19 @@ public class AsciiImage {
      * @return the built line.
      */
     private static String buildEmptyLine(int length) {
-        StringBuilder builder = new StringBuilder();
+        StringBuilder builder = new StringBuilder(length);
+        appendEmptyLine(builder, length);
+        return builder.toString();
+    }
+
+    /**
+     * Helper method to append a given number of whitespace characters to a line.
+     * @param builder the builder of the line.
+     * @param length the number of whitespace characters to append.
+     */
+    private static void appendEmptyLine(StringBuilder builder, int length) {
         for (int i = 0; i < length; i++) {
             builder.append(' ');
         }
-        return builder.toString();
     }
 }
@@ -25,6 +25,10 @@ public enum Direction {
 
     private final byte dx;
     private final byte dy;
+    /**
+     * The delta vector as a point. Points are immutable, so the same instance can be returned every time.
+     */
+    private final Point vector;
 
     /**
      * Constructs a direction with it's delta vector.
@@ -34,6 +38,7 @@ public enum Direction {
     Direction(byte dx, byte dy) {
         this.dx = dx;
         this.dy = dy;
+        this.vector = new Point(dx, dy);
     }
 
     /**
@@ -75,7 +80,7 @@ public enum Direction {
      * @return this direction as a point.
      */
     public Point toPoint() {
-        return new Point(dx, dy);
+        return vector;
     }
 
     /**
@@ -83,7 +88,15 @@ public enum Direction {
      * @return the opposite of this direction.
      */
     public Direction opposite() {
-        return fromPoint(toPoint().invert());
+        if (this == UP) {
+            return DOWN;
+        } else if (this == DOWN) {
+            return UP;
+        } else if (this == RIGHT) {
+            return LEFT;
+        } else {
+            return RIGHT;
+        }
     }
 
     /**
@@ -91,6 +104,6 @@ public enum Direction {
      * @return the alignment of this direction's delta vector.
      */
     public Alignment getAlignment() {
-        return Alignment.getAlignment(Point.ORIGIN, toPoint());
+        return dx == 0 ? Alignment.VERTICAL : Alignment.HORIZONTAL;
     }
 }
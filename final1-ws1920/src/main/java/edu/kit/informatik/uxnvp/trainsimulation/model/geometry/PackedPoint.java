@@ -0,0 +1,94 @@
+package edu.kit.informatik.uxnvp.trainsimulation.model.geometry;
+
+/**
+ * Utility methods for points that are packed into a primitive long: the x-coordinate is stored in the upper 32 bits
+ * and the y-coordinate in the lower 32 bits. Packed points do not allocate any objects and are used in the hot paths
+ * of the simulation, while {@link Point} is used everywhere else.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public final class PackedPoint {
+    /**
+     * Utility classes should never be instantiated.
+     */
+    private PackedPoint() {
+        throw new AssertionError("utility classes should never be instantiated.");
+    }
+
+    /**
+     * Packs coordinates into a long.
+     * @param x the x-axis coordinate.
+     * @param y the y-axis coordinate.
+     * @return the packed point.
+     */
+    public static long of(int x, int y) {
+        return (long) x << 32 | y & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Packs a point into a long.
+     * @param point the point to pack.
+     * @return the packed point.
+     */
+    public static long of(Point point) {
+        return of(point.getX(), point.getY());
+    }
+
+    /**
+     * Returns the x-axis coordinate of a packed point.
+     * @param packedPoint the packed point.
+     * @return the x-axis coordinate of the packed point.
+     */
+    public static int getX(long packedPoint) {
+        return (int) (packedPoint >> 32);
+    }
+
+    /**
+     * Returns the y-axis coordinate of a packed point.
+     * @param packedPoint the packed point.
+     * @return the y-axis coordinate of the packed point.
+     */
+    public static int getY(long packedPoint) {
+        return (int) packedPoint;
+    }
+
+    /**
+     * Unpacks a packed point.
+     * @param packedPoint the packed point.
+     * @return a new point with the coordinates of the packed point.
+     */
+    public static Point toPoint(long packedPoint) {
+        return new Point(getX(packedPoint), getY(packedPoint));
+    }
+
+    /**
+     * Moves a packed point one step in a direction.
+     * @param packedPoint the packed point.
+     * @param direction the direction to move in.
+     * @return the packed point one step in the given direction.
+     */
+    public static long add(long packedPoint, Direction direction) {
+        return of(getX(packedPoint) + direction.getDx(), getY(packedPoint) + direction.getDy());
+    }
+
+    /**
+     * Moves a packed point one step against a direction.
+     * @param packedPoint the packed point.
+     * @param direction the direction to move against.
+     * @return the packed point one step against the given direction.
+     */
+    public static long subtract(long packedPoint, Direction direction) {
+        return of(getX(packedPoint) - direction.getDx(), getY(packedPoint) - direction.getDy());
+    }
+
+    /**
+     * Computes a hash code for a packed point. The bits of both coordinates are mixed, so points on the same row,
+     * column or diagonal spread over hash tables.
+     * @param packedPoint the packed point.
+     * @return the hash code of the packed point.
+     */
+    public static int hash(long packedPoint) {
+        long hash = packedPoint * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32);
+    }
+}
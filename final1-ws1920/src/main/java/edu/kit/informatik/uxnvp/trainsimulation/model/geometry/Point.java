@@ -111,7 +111,7 @@ public class Point {
 
     @Override
     public int hashCode() {
-        return x + y;
+        return PackedPoint.hash(PackedPoint.of(x, y));
     }
 
     /**
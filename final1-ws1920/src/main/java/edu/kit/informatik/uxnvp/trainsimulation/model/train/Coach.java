@@ -29,6 +29,14 @@ public class Coach extends RollingStock implements Comparable<Coach> {
         this.id = id;
     }
 
+    /**
+     * Returns the type of this coach.
+     * @return the type of this coach.
+     */
+    public CoachType getType() {
+        return type;
+    }
+
     /**
      * Returns the unique numeric identifier of this coach.
      * @return the unique numeric identifier of this coach.
@@ -0,0 +1,16 @@
+package edu.kit.informatik.uxnvp.trainsimulation.model.train;
+
+/**
+ * Gets notified whenever a train is put on the rails or removed from them.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public interface PlacementListener {
+    /**
+     * Called after a train was put on the rails or removed from them. Moving a train that stays on the rails does not
+     * cause a notification.
+     * @param train the train that was put on or removed from the rails.
+     * @param onRails true if the train is on the rails now and false if it was removed from them.
+     */
+    void placementChanged(Train train, boolean onRails);
+}
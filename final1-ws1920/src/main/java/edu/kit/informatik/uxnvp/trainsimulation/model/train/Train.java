@@ -3,6 +3,8 @@ package edu.kit.informatik.uxnvp.trainsimulation.model.train;
 import edu.kit.informatik.uxnvp.trainsimulation.model.AsciiImage;
 import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -16,6 +18,11 @@ public class Train implements Comparable<Train>, Couplable {
     private final int id;
     private final List<RollingStock> rollingStocks;
     private TrainLocation currentLocation;
+    private PlacementListener placementListener;
+    /**
+     * The concatenated graphical representations of the rolling stocks or null if they changed since it was built.
+     */
+    private AsciiImage graphicalRepresentation;
 
     /**
      * Constructs a new train without any rolling stocks.
@@ -26,6 +33,19 @@ public class Train implements Comparable<Train>, Couplable {
         rollingStocks = new LinkedList<>();
     }
 
+    /**
+     * Creates a copy of this train that can be moved without moving this train, e.g. for looking ahead. The copy has
+     * the same rolling stocks, but they still belong to this train, and it is not registered in any fleet.
+     * @return a new train with the same id, rolling stocks and location as this train.
+     */
+    public Train copy() {
+        Train copy = new Train(id);
+        copy.rollingStocks.addAll(rollingStocks);
+        copy.currentLocation = currentLocation;
+        copy.graphicalRepresentation = graphicalRepresentation;
+        return copy;
+    }
+
     /**
      * Returns the unique identifier of this train.
      * @return the unique identifier of this train.
@@ -51,6 +71,27 @@ public class Train implements Comparable<Train>, Couplable {
     public void addRollingStock(RollingStock rollingStock) {
         rollingStocks.add(rollingStock);
         rollingStock.setTrain(this);
+        graphicalRepresentation = null;
+    }
+
+    /**
+     * Checks whether a rolling stock can be appended to the back of this train, like when it is added with a command:
+     * the rolling stock needs a front coupling, this train needs a back coupling and train-sets can only be coupled
+     * with train-sets of the same series. Any rolling stock can be the first one of a train.
+     * @param rollingStock the rolling stock to append.
+     * @return whether the rolling stock can be appended.
+     */
+    public boolean canAppend(RollingStock rollingStock) {
+        return rollingStocks.isEmpty() || (rollingStock.hasFrontCoupling() && hasBackCoupling()
+                && TrainSet.canBeCoupled(rollingStock, getLastRollingStock()));
+    }
+
+    /**
+     * Returns a read-only view on the rolling stocks of this train, from the front to the back.
+     * @return a read-only view on the rolling stocks of this train.
+     */
+    public List<RollingStock> getRollingStocks() {
+        return Collections.unmodifiableList(rollingStocks);
     }
 
     /**
@@ -62,31 +103,44 @@ public class Train implements Comparable<Train>, Couplable {
             iterator.next().setTrain(null);
             iterator.remove();
         }
+        graphicalRepresentation = null;
     }
 
     /**
-     * Concatenates the graphical representations of all rolling stocks.
+     * Concatenates the graphical representations of all rolling stocks. The image is built once and kept until the
+     * rolling stocks of this train change.
      * @return the graphical representation of this train.
      */
     public AsciiImage getGraphicalRepresentation() {
-        if (rollingStocks.isEmpty()) {
-            return new AsciiImage();
-        } else {
-            AsciiImage concatenated = rollingStocks.get(0).getGraphicalRepresentation();
-            for (int i = 1; i < rollingStocks.size(); i++) {
-                AsciiImage imageToAppend = rollingStocks.get(i).getGraphicalRepresentation();
-                concatenated = concatenated.concat(imageToAppend);
+        if (graphicalRepresentation == null) {
+            List<AsciiImage> images = new ArrayList<>(rollingStocks.size());
+            for (RollingStock rollingStock : rollingStocks) {
+                images.add(rollingStock.getGraphicalRepresentation());
             }
-            return concatenated;
+            graphicalRepresentation = AsciiImage.concat(images);
         }
+        return graphicalRepresentation;
     }
 
     /**
-     * Updates the location of this train.
-     * @param location the new location of this train.
+     * Updates the location of this train. The placement listener is notified if the train is put on or removed from
+     * the rails.
+     * @param location the new location of this train or null if the train is removed from the rails.
      */
     public void setLocation(TrainLocation location) {
+        boolean wasOnRails = currentLocation != null;
         this.currentLocation = location;
+        if (placementListener != null && wasOnRails != (location != null)) {
+            placementListener.placementChanged(this, location != null);
+        }
+    }
+
+    /**
+     * Sets the listener that is notified whenever this train is put on or removed from the rails.
+     * @param placementListener the listener or null if no listener should be notified.
+     */
+    public void setPlacementListener(PlacementListener placementListener) {
+        this.placementListener = placementListener;
     }
 
     /**
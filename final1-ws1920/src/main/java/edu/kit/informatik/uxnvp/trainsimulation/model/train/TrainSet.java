@@ -67,6 +67,29 @@ public class TrainSet extends RollingStock implements Comparable<TrainSet> {
         return getSeries() + "-" + getName();
     }
 
+    /**
+     * Checks whether two rolling stocks may be coupled with regard to train-sets: train-sets can only be coupled with
+     * train-sets of the same series.
+     * @param stockOne the first rolling stock.
+     * @param stockTwo the second rolling stock.
+     * @return whether the rolling stocks may be coupled.
+     */
+    public static boolean canBeCoupled(RollingStock stockOne, RollingStock stockTwo) {
+        // Note about instanceof usage: Using instanceof in this case is justified because we need to check whether
+        // certain rolling stocks are of the TrainSet type. Train-sets are a special case and trying to
+        // implement this in a polymorphic model (just to avoid using instanceof) would result in a another way to
+        // check the type of a rolling stock, i.e. by having a isTrainSet() or getRollingStockType() method which both
+        // are essentially just other approaches to an instanceof check
+        if ((stockOne instanceof TrainSet && !(stockTwo instanceof TrainSet))
+                || (!(stockOne instanceof TrainSet) && stockTwo instanceof TrainSet)) {
+            return false;
+        } else if (stockOne instanceof TrainSet) { // stockTwo must be a train-set as well because of the case above
+            return ((TrainSet) stockOne).getSeries().equals(((TrainSet) stockTwo).getSeries());
+        } else { // neither of the rolling stocks is a train-set
+            return true;
+        }
+    }
+
     @Override
     public int compareTo(TrainSet o) {
         return getId().compareTo(o.getId());
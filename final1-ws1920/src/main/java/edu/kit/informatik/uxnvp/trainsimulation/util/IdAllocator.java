@@ -0,0 +1,59 @@
+package edu.kit.informatik.uxnvp.trainsimulation.util;
+
+import java.util.BitSet;
+
+/**
+ * Keeps track of used integer ids and finds the lowest available one. Ids start at 1. The used ids are stored in a
+ * bit set, so finding the lowest available id only scans the words of the bit set instead of looking up every
+ * candidate id.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class IdAllocator {
+    private static final int FIRST_ID = 1;
+
+    private final BitSet usedIds;
+
+    /**
+     * Constructs an allocator without any used ids.
+     */
+    public IdAllocator() {
+        this.usedIds = new BitSet();
+    }
+
+    /**
+     * Finds the lowest available id without marking it as used.
+     * @return the lowest id that is not used.
+     */
+    public int getNextAvailableId() {
+        return usedIds.nextClearBit(FIRST_ID);
+    }
+
+    /**
+     * Finds the lowest available id and marks it as used.
+     * @return the allocated id.
+     */
+    public int allocate() {
+        int id = getNextAvailableId();
+        usedIds.set(id);
+        return id;
+    }
+
+    /**
+     * Marks an id as used.
+     * @param id the id to mark. Must be positive.
+     */
+    public void markUsed(int id) {
+        usedIds.set(id);
+    }
+
+    /**
+     * Marks an id as available again.
+     * @param id the id to release.
+     */
+    public void release(int id) {
+        if (id >= FIRST_ID) {
+            usedIds.clear(id);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package edu.kit.informatik.uxnvp.trainsimulation.util;
+
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * A balanced search tree of closed integer intervals that can find all intervals containing a value or overlapping an
+ * interval. The tree is a treap ordered by the lower bounds of the intervals, and every node stores the maximum upper
+ * bound of its subtree so that queries can skip subtrees which end before the queried value.
+ * @param <T> the type of the values stored with the intervals.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class IntervalTree<T> {
+    private final Random random;
+    private Node<T> root;
+    private int size;
+
+    /**
+     * Constructs an empty interval tree.
+     */
+    public IntervalTree() {
+        this.random = new Random();
+        this.root = null;
+        this.size = 0;
+    }
+
+    /**
+     * Returns the amount of intervals in this tree.
+     * @return the amount of intervals in this tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether this tree contains no intervals.
+     * @return true if this tree does not contain any intervals and false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Inserts an interval into this tree. The bounds do not have to be in a specific order.
+     * @param a one bound of the interval (inclusive).
+     * @param b the other bound of the interval (inclusive).
+     * @param value the value to store with the interval.
+     */
+    public void insert(int a, int b, T value) {
+        root = insert(root, new Node<>(Math.min(a, b), Math.max(a, b), value, random.nextInt()));
+        size++;
+    }
+
+    /**
+     * Removes an interval from this tree and does nothing if the interval is not contained.
+     * @param a one bound of the interval (inclusive).
+     * @param b the other bound of the interval (inclusive).
+     * @param value the value stored with the interval. Is compared using {@link Object#equals(Object)}.
+     * @return true if the interval was removed and false if it was not contained.
+     */
+    public boolean remove(int a, int b, T value) {
+        int oldSize = size;
+        root = remove(root, Math.min(a, b), Math.max(a, b), value);
+        return size != oldSize;
+    }
+
+    /**
+     * Finds the values of all intervals that contain a value.
+     * @param point the value that the intervals must contain.
+     * @param result the collection to add the values of all matching intervals to.
+     */
+    public void findContaining(int point, Collection<? super T> result) {
+        findOverlapping(root, point, point, result);
+    }
+
+    /**
+     * Finds the values of all intervals that share at least one value with an interval.
+     * @param a one bound of the interval (inclusive).
+     * @param b the other bound of the interval (inclusive).
+     * @param result the collection to add the values of all matching intervals to.
+     */
+    public void findOverlapping(int a, int b, Collection<? super T> result) {
+        findOverlapping(root, Math.min(a, b), Math.max(a, b), result);
+    }
+
+    private static <T> void findOverlapping(Node<T> node, int low, int high, Collection<? super T> result) {
+        if (node == null || node.maxHigh < low) {
+            // no interval in this subtree reaches the interval
+            return;
+        }
+        findOverlapping(node.left, low, high, result);
+        if (node.low <= high) {
+            if (low <= node.high) {
+                result.add(node.value);
+            }
+            // intervals on the right start at or after this node's lower bound and might still reach the interval
+            findOverlapping(node.right, low, high, result);
+        }
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> newNode) {
+        if (node == null) {
+            return newNode;
+        } else if (newNode.low < node.low) {
+            node.left = insert(node.left, newNode);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, newNode);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<T> remove(Node<T> node, int low, int high, T value) {
+        if (node == null) {
+            return null;
+        } else if (node.low == low && node.high == high && node.value.equals(value)) {
+            size--;
+            return removeNode(node);
+        }
+
+        // intervals with the same lower bound can end up on both sides after rotations
+        int sizeBefore = size;
+        if (low <= node.low) {
+            node.left = remove(node.left, low, high, value);
+        }
+        if (low >= node.low && size == sizeBefore) {
+            node.right = remove(node.right, low, high, value);
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<T> removeNode(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else if (node.left.priority > node.right.priority) {
+            Node<T> newRoot = rotateRight(node);
+            newRoot.right = removeNode(node);
+            newRoot.update();
+            return newRoot;
+        } else {
+            Node<T> newRoot = rotateLeft(node);
+            newRoot.left = removeNode(node);
+            newRoot.update();
+            return newRoot;
+        }
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        node.update();
+        newRoot.update();
+        return newRoot;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        node.update();
+        newRoot.update();
+        return newRoot;
+    }
+
+    /**
+     * A node of the treap.
+     * @param <T> the type of the value stored with the interval.
+     * @author Max Schweikart
+     * @version 1.0
+     */
+    private static final class Node<T> {
+        private final int low;
+        private final int high;
+        private final T value;
+        private final int priority;
+        private int maxHigh;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(int low, int high, T value, int priority) {
+            this.low = low;
+            this.high = high;
+            this.value = value;
+            this.priority = priority;
+            this.maxHigh = high;
+        }
+
+        /**
+         * Recomputes the maximum upper bound of the subtree of this node.
+         */
+        private void update() {
+            maxHigh = high;
+            if (left != null) {
+                maxHigh = Math.max(maxHigh, left.maxHigh);
+            }
+            if (right != null) {
+                maxHigh = Math.max(maxHigh, right.maxHigh);
+            }
+        }
+    }
+}
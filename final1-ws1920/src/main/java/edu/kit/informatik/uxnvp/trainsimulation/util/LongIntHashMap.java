@@ -0,0 +1,161 @@
+package edu.kit.informatik.uxnvp.trainsimulation.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive long keys to primitive int values using open addressing with linear probing. The map can
+ * be cleared in constant time, so it can be reused for many short-lived mappings without allocating.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class LongIntHashMap {
+    /**
+     * The value returned for keys that are not contained in the map.
+     */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    /**
+     * A slot is used if its generation equals the current generation. Increasing the generation clears the map.
+     */
+    private int[] generations;
+    private int generation;
+    private int size;
+
+    /**
+     * Constructs an empty map.
+     */
+    public LongIntHashMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns the amount of keys in this map.
+     * @return the amount of keys in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all keys from this map. The allocated memory is kept for reuse.
+     */
+    public void clear() {
+        generation++;
+        if (generation == 0) {
+            // the generation overflowed, so old slots could look used again
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns the value associated with a key.
+     * @param key the key to look up.
+     * @return the value associated with the key or {@link #NO_VALUE} if the key is not contained.
+     */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; generations[slot] == generation; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Associates a value with a key unless the key already has a value.
+     * @param key the key.
+     * @param value the value to associate with the key.
+     * @return the value that was already associated with the key or {@link #NO_VALUE} if the value was added.
+     */
+    public int putIfAbsent(long key, int value) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (generations[slot] == generation) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        generations[slot] = generation;
+        size++;
+        if (size * 2 > keys.length) {
+            grow();
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Associates a value with a key and replaces the value that was associated with the key before.
+     * @param key the key.
+     * @param value the value to associate with the key.
+     */
+    public void put(long key, int value) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; generations[slot] == generation; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+        }
+        putIfAbsent(key, value);
+    }
+
+    /**
+     * Adds a delta to the value associated with a key. Keys without a value start at 0. Keys are never removed, even
+     * if their value drops back to 0.
+     * @param key the key.
+     * @param delta the delta to add to the value.
+     * @return the new value associated with the key.
+     */
+    public int addTo(long key, int delta) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; generations[slot] == generation; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+        }
+        putIfAbsent(key, delta);
+        return delta;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldGenerations = generations;
+        int oldGeneration = generation;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldGenerations[i] == oldGeneration) {
+                putIfAbsent(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        generations = new int[capacity];
+        generation = 1;
+        size = 0;
+    }
+
+    /**
+     * Mixes the bits of a key so that keys with a similar structure (e.g. packed coordinates) spread over the table.
+     * @param key the key to hash.
+     * @return the hash of the key.
+     */
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,46 @@
+package edu.kit.informatik.uxnvp.trainsimulation.util;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * A fork/join task that runs an action for every index of a range. The range is split in halves until the parts are
+ * not larger than a given grain size, and the parts are run in parallel by the pool the task is invoked in.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class ParallelRange extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final int grainSize;
+    private final IntConsumer action;
+
+    /**
+     * Constructs a task for a range of indices.
+     * @param from the first index (inclusive).
+     * @param to the last index (exclusive).
+     * @param grainSize the maximum amount of indices that is handled without splitting the range. Must be positive.
+     * @param action the action to run for every index. Must be safe to run for different indices concurrently.
+     */
+    public ParallelRange(int from, int to, int grainSize, IntConsumer action) {
+        this.from = from;
+        this.to = to;
+        this.grainSize = grainSize;
+        this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= grainSize) {
+            for (int i = from; i < to; i++) {
+                action.accept(i);
+            }
+        } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParallelRange(from, middle, grainSize, action),
+                    new ParallelRange(middle, to, grainSize, action));
+        }
+    }
+}
@@ -3,28 +3,32 @@ package edu.kit.informatik.uxnvp.trainsimulation.util;
 import edu.kit.informatik.uxnvp.trainsimulation.cli.SyntaxException;
 import edu.kit.informatik.uxnvp.trainsimulation.model.*;
 import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.PackedPoint;
 import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
 import edu.kit.informatik.uxnvp.trainsimulation.model.train.CoachType;
 import edu.kit.informatik.uxnvp.trainsimulation.model.train.EngineType;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
- * Utility class for parsing and validating various data types.
+ * Utility class for parsing and validating various data types. The texts are scanned character by character, so
+ * valid input is parsed without creating any intermediate objects. The syntax is given as regular expressions in the
+ * documentation of the scanning methods:
+ * <ul>
+ *     <li>integer: {@code [\-+]?\d+}</li>
+ *     <li>integer pair: {@code integer,integer}</li>
+ *     <li>point: {@code \(integer pair\)}</li>
+ *     <li>alphanumerical: {@code [a-zA-Z0-9]+}</li>
+ *     <li>series: {@code [a-zA-Z0-9&&[^W]]+}</li>
+ *     <li>rolling stock id: {@code Winteger|alphanumerical-alphanumerical}</li>
+ * </ul>
+ * Points, point pairs and directions are found anywhere in the text, all other values have to match the whole text.
  * @author Max Schweikart
  * @version 1.0
  */
 public final class ParsingUtility {
-    private static final Pattern INTEGER = Pattern.compile("[\\-+]?\\d+");
-    private static final Pattern INTEGER_PAIR = Pattern.compile("(" + INTEGER + "),(" + INTEGER + ")");
-    private static final Pattern POINT = Pattern.compile("\\(" + INTEGER_PAIR + "\\)");
-    private static final Pattern TWO_POINTS = Pattern.compile("(" + POINT + "),(" + POINT + ")");
-    private static final Pattern ALPHANUMERICAL = Pattern.compile("[a-zA-Z0-9]+");
-    private static final Pattern SERIES = Pattern.compile("[a-zA-Z0-9&&[^W]]+");
-    private static final Pattern BOOLEAN = Pattern.compile("(true|false)");
-    private static final Pattern ROLLING_STOCK_ID = Pattern.compile("(W" + INTEGER
-            + "|" + ALPHANUMERICAL + "-" + ALPHANUMERICAL + ")");
+    /**
+     * The value of integers that are out of the int range.
+     */
+    private static final long OUT_OF_RANGE = Long.MAX_VALUE;
 
     /**
      * Utility classes should never be instantiated.
@@ -40,14 +44,22 @@ public final class ParsingUtility {
      * @throws SyntaxException if the input text does not match the point syntax.
      */
     public static Point parsePoint(String input) throws SyntaxException {
-        Matcher matcher = POINT.matcher(input);
-        if (!matcher.find()) {
-            throw new SyntaxException(String.format("'%s' is not a valid point.", input));
-        } else {
-            int x = Integer.parseInt(matcher.group(1));
-            int y = Integer.parseInt(matcher.group(2));
-            return new Point(x, y);
+        return PackedPoint.toPoint(parsePackedPoint(input));
+    }
+
+    /**
+     * Parses the first point in a text into a {@link PackedPoint packed point}.
+     * @param input the text to parse.
+     * @return the parsed packed point.
+     * @throws SyntaxException if the input text does not contain a point.
+     */
+    public static long parsePackedPoint(CharSequence input) throws SyntaxException {
+        for (int start = 0; start < input.length(); start++) {
+            if (scanPoint(input, start) >= 0) {
+                return toPackedPoint(input, start);
+            }
         }
+        throw new SyntaxException(String.format("'%s' is not a valid point.", input));
     }
 
     /**
@@ -57,14 +69,15 @@ public final class ParsingUtility {
      * @throws SyntaxException if the input text does not match the syntax of a point pair.
      */
     public static Pair<Point> parsePointPair(String input) throws SyntaxException {
-        Matcher matcher = TWO_POINTS.matcher(input);
-        if (!matcher.find()) {
-            throw new SyntaxException(String.format("'%s' not a valid point list.", input));
-        } else {
-            Point point1 = parsePoint(matcher.group(1));
-            Point point2 = parsePoint(matcher.group(4));
-            return new Pair<>(point1, point2);
+        for (int start = 0; start < input.length(); start++) {
+            int end = scanPoint(input, start);
+            if (end >= 0 && end < input.length() && input.charAt(end) == ',' && scanPoint(input, end + 1) >= 0) {
+                Point point1 = PackedPoint.toPoint(toPackedPoint(input, start));
+                Point point2 = PackedPoint.toPoint(toPackedPoint(input, end + 1));
+                return new Pair<>(point1, point2);
+            }
         }
+        throw new SyntaxException(String.format("'%s' not a valid point list.", input));
     }
 
     /**
@@ -95,14 +108,11 @@ public final class ParsingUtility {
      * @throws SyntaxException if the input text does not match the integer syntax.
      */
     public static int parseInteger(String input) throws SyntaxException {
-        if (!INTEGER.matcher(input).matches()) {
+        long value = scanInteger(input, 0) == input.length() ? toLong(input, 0, input.length()) : OUT_OF_RANGE;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
             throw new SyntaxException(String.format("'%s' is not an integer number.", input));
         }
-        try {
-            return Integer.parseInt(input);
-        } catch (NumberFormatException e) {
-            throw new SyntaxException(String.format("'%s' is not an integer number.", input));
-        } //todo this is essentially not a syntax check
+        return (int) value;
     }
 
     /**
@@ -112,10 +122,12 @@ public final class ParsingUtility {
      * @throws SyntaxException if the input does not match the boolean syntax.
      */
     public static boolean parseBoolean(String input) throws SyntaxException {
-        if (!BOOLEAN.matcher(input).matches()) {
-            throw new SyntaxException(String.format("'%s' is not a valid boolean value.", input));
+        if ("true".equals(input)) {
+            return true;
+        } else if ("false".equals(input)) {
+            return false;
         } else {
-            return Boolean.parseBoolean(input);
+            throw new SyntaxException(String.format("'%s' is not a valid boolean value.", input));
         }
     }
 
@@ -126,7 +138,7 @@ public final class ParsingUtility {
      * @throws SyntaxException if the input contains a 'W' or if it is not alphanumerical.
      */
     public static String parseSeries(String input) throws SyntaxException {
-        if (!SERIES.matcher(input).matches()) {
+        if (scanAlphanumerical(input, 0, false) != input.length()) {
             throw new SyntaxException(String.format("'%s' is not a valid series.", input));
         } else {
             return input;
@@ -140,7 +152,7 @@ public final class ParsingUtility {
      * @throws SyntaxException if the input is not alphanumerical.
      */
     public static String parseName(String input) throws SyntaxException {
-        if (!ALPHANUMERICAL.matcher(input).matches()) {
+        if (scanAlphanumerical(input, 0, true) != input.length()) {
             throw new SyntaxException(String.format("'%s' is not a valid name.", input));
         } else {
             return input;
@@ -154,7 +166,7 @@ public final class ParsingUtility {
      * @throws SyntaxException if the input is not a valid rolling stock id.
      */
     public static String parseRollingStockId(String input) throws SyntaxException {
-        if (!ROLLING_STOCK_ID.matcher(input).matches()) {
+        if (!isRollingStockId(input)) {
             throw new SyntaxException(String.format("'%s' is not a valid rolling stock id.", input));
         } else {
             return input;
@@ -198,13 +210,141 @@ public final class ParsingUtility {
      * @throws SyntaxException if the input does not match the direction syntax.
      */
     public static Direction parseDirection(String input) throws SyntaxException {
-        Matcher matcher = INTEGER_PAIR.matcher(input);
-        if (!matcher.find()) {
-            throw new SyntaxException(String.format("'%s' not a valid integer pair.", input));
-        } else {
-            int x = Integer.parseInt(matcher.group(1));
-            int y = Integer.parseInt(matcher.group(2));
-            return Direction.fromPoint(new Point(x, y));
+        for (int start = 0; start < input.length(); start++) {
+            int end = scanInteger(input, start);
+            if (end >= 0 && end < input.length() && input.charAt(end) == ',') {
+                int secondEnd = scanInteger(input, end + 1);
+                if (secondEnd >= 0) {
+                    int x = toInt(input, start, end);
+                    int y = toInt(input, end + 1, secondEnd);
+                    return Direction.fromPoint(new Point(x, y));
+                }
+            }
+        }
+        throw new SyntaxException(String.format("'%s' not a valid integer pair.", input));
+    }
+
+    /**
+     * Checks whether a text is a rolling stock id.
+     * @param input the text to check.
+     * @return whether the whole text matches the rolling stock id syntax.
+     */
+    private static boolean isRollingStockId(CharSequence input) {
+        if (input.length() > 0 && input.charAt(0) == 'W' && scanInteger(input, 1) == input.length()) {
+            return true;
+        }
+        int separator = scanAlphanumerical(input, 0, true);
+        return separator >= 0 && separator < input.length() && input.charAt(separator) == '-'
+                && scanAlphanumerical(input, separator + 1, true) == input.length();
+    }
+
+    /**
+     * Finds the end of an integer ({@code [\-+]?\d+}) that starts at an index.
+     * @param input the text to scan.
+     * @param start the index of the first character of the integer.
+     * @return the index after the last digit or -1 if there is no integer at the index.
+     */
+    private static int scanInteger(CharSequence input, int start) {
+        int index = start;
+        if (index < input.length() && (input.charAt(index) == '-' || input.charAt(index) == '+')) {
+            index++;
+        }
+        int digitsStart = index;
+        while (index < input.length() && input.charAt(index) >= '0' && input.charAt(index) <= '9') {
+            index++;
+        }
+        return index > digitsStart ? index : -1;
+    }
+
+    /**
+     * Finds the end of a point ({@code \([\-+]?\d+,[\-+]?\d+\)}) that starts at an index.
+     * @param input the text to scan.
+     * @param start the index of the opening parenthesis.
+     * @return the index after the closing parenthesis or -1 if there is no point at the index.
+     */
+    private static int scanPoint(CharSequence input, int start) {
+        if (start >= input.length() || input.charAt(start) != '(') {
+            return -1;
+        }
+        int separator = scanInteger(input, start + 1);
+        if (separator < 0 || separator >= input.length() || input.charAt(separator) != ',') {
+            return -1;
+        }
+        int end = scanInteger(input, separator + 1);
+        if (end < 0 || end >= input.length() || input.charAt(end) != ')') {
+            return -1;
+        }
+        return end + 1;
+    }
+
+    /**
+     * Finds the end of an alphanumerical text ({@code [a-zA-Z0-9]+}) that starts at an index.
+     * @param input the text to scan.
+     * @param start the index of the first character.
+     * @param allowW whether the text may contain the letter 'W'.
+     * @return the index after the last alphanumerical character or -1 if there is none at the index.
+     */
+    private static int scanAlphanumerical(CharSequence input, int start, boolean allowW) {
+        int index = start;
+        while (index < input.length() && isAlphanumerical(input.charAt(index))
+                && (allowW || input.charAt(index) != 'W')) {
+            index++;
+        }
+        return index > start ? index : -1;
+    }
+
+    private static boolean isAlphanumerical(char character) {
+        return character >= 'a' && character <= 'z' || character >= 'A' && character <= 'Z'
+                || character >= '0' && character <= '9';
+    }
+
+    /**
+     * Converts a point that was found by {@link #scanPoint(CharSequence, int)} into a packed point.
+     * @param input the text that contains the point.
+     * @param start the index of the opening parenthesis.
+     * @return the packed point.
+     */
+    private static long toPackedPoint(CharSequence input, int start) {
+        int separator = scanInteger(input, start + 1);
+        int x = toInt(input, start + 1, separator);
+        int y = toInt(input, separator + 1, scanInteger(input, separator + 1));
+        return PackedPoint.of(x, y);
+    }
+
+    /**
+     * Converts an integer that was found by {@link #scanInteger(CharSequence, int)} into an int.
+     * @param input the text that contains the integer.
+     * @param start the index of the first character of the integer.
+     * @param end the index after the last digit.
+     * @return the value of the integer.
+     * @throws NumberFormatException if the integer is out of the int range, just like {@link Integer#parseInt(String)}.
+     */
+    private static int toInt(CharSequence input, int start, int end) {
+        long value = toLong(input, start, end);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            // fail with the same exception as before
+            return Integer.parseInt(input.subSequence(start, end).toString());
+        }
+        return (int) value;
+    }
+
+    /**
+     * Computes the value of an integer that was found by {@link #scanInteger(CharSequence, int)}.
+     * @param input the text that contains the integer.
+     * @param start the index of the first character of the integer.
+     * @param end the index after the last digit.
+     * @return the value of the integer or {@link #OUT_OF_RANGE} if it does not fit into an int.
+     */
+    private static long toLong(CharSequence input, int start, int end) {
+        boolean negative = input.charAt(start) == '-';
+        int index = negative || input.charAt(start) == '+' ? start + 1 : start;
+        long value = 0;
+        for (; index < end; index++) {
+            value = value * 10 + (input.charAt(index) - '0');
+            if (value > -(long) Integer.MIN_VALUE) {
+                return OUT_OF_RANGE;
+            }
         }
+        return negative ? -value : value;
     }
 }
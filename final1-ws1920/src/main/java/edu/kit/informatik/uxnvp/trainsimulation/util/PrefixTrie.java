@@ -0,0 +1,61 @@
+package edu.kit.informatik.uxnvp.trainsimulation.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A trie that maps string keys to values and finds the value of the longest key that a text starts with. Finding a
+ * key only looks at the characters of the text once, no matter how many keys are stored.
+ * @param <T> the type of the values.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class PrefixTrie<T> {
+    private final Node<T> root;
+
+    /**
+     * Constructs an empty trie.
+     */
+    public PrefixTrie() {
+        this.root = new Node<>();
+    }
+
+    /**
+     * Associates a value with a key and replaces the value that was associated with the key before.
+     * @param key the key.
+     * @param value the value to associate with the key. Must not be null.
+     */
+    public void put(String key, T value) {
+        Node<T> node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), character -> new Node<>());
+        }
+        node.value = value;
+    }
+
+    /**
+     * Finds the value of the longest key that a text starts with.
+     * @param text the text to find a key in.
+     * @return the value of the longest key that is a prefix of the text or null if no key is a prefix of the text.
+     */
+    public T findLongestPrefixOf(String text) {
+        Node<T> node = root;
+        T value = root.value;
+        for (int i = 0; i < text.length() && node != null; i++) {
+            node = node.children.get(text.charAt(i));
+            if (node != null && node.value != null) {
+                value = node.value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * A node of the trie. The path from the root to the node spells the key of its value.
+     * @param <T> the type of the value.
+     */
+    private static class Node<T> {
+        private final Map<Character, Node<T>> children = new HashMap<>();
+        private T value;
+    }
+}
@@ -0,0 +1,80 @@
+package edu.kit.informatik.uxnvp.trainsimulation.util;
+
+/**
+ * A union-find (disjoint set) structure over the integers from 0 to a given size. Sets are merged by size and paths
+ * are halved while finding, so all operations run in nearly constant time.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+public class UnionFind {
+    private int[] parents;
+    private int[] sizes;
+
+    /**
+     * Constructs a structure without any elements. Call {@link #reset(int)} before using it.
+     */
+    public UnionFind() {
+        this.parents = new int[0];
+        this.sizes = new int[0];
+    }
+
+    /**
+     * Puts every element from 0 (inclusive) to a given size (exclusive) into its own set. The allocated memory is kept
+     * for reuse if it is large enough.
+     * @param size the amount of elements.
+     */
+    public void reset(int size) {
+        if (parents.length < size) {
+            parents = new int[Math.max(size, parents.length * 2)];
+            sizes = new int[parents.length];
+        }
+        for (int i = 0; i < size; i++) {
+            parents[i] = i;
+            sizes[i] = 1;
+        }
+    }
+
+    /**
+     * Finds the representative of the set that contains an element.
+     * @param element the element to find the set of.
+     * @return the representative of the set containing the element.
+     */
+    public int find(int element) {
+        int current = element;
+        while (parents[current] != current) {
+            parents[current] = parents[parents[current]];
+            current = parents[current];
+        }
+        return current;
+    }
+
+    /**
+     * Merges the sets that contain two elements.
+     * @param elementA the first element.
+     * @param elementB the second element.
+     * @return true if the sets were merged and false if both elements already were in the same set.
+     */
+    public boolean union(int elementA, int elementB) {
+        int rootA = find(elementA);
+        int rootB = find(elementB);
+        if (rootA == rootB) {
+            return false;
+        } else if (sizes[rootA] < sizes[rootB]) {
+            parents[rootA] = rootB;
+            sizes[rootB] += sizes[rootA];
+        } else {
+            parents[rootB] = rootA;
+            sizes[rootA] += sizes[rootB];
+        }
+        return true;
+    }
+
+    /**
+     * Returns the size of the set that contains an element.
+     * @param element the element.
+     * @return the amount of elements in the set containing the element.
+     */
+    public int getSetSize(int element) {
+        return sizes[find(element)];
+    }
+}
@@ -0,0 +1,96 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli;
+
+import edu.kit.informatik.CapturingOutputSink;
+import edu.kit.informatik.OutputSink;
+import edu.kit.informatik.Terminal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the {@link CommandJournal} recovers the recorded commands and reports the errors of its own files apart
+ * from the errors of the commands.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class CommandJournalTest {
+    private static final String ADD_TRACK = "add track (0,0) -> (5,0)";
+
+    @TempDir
+    Path directory;
+
+    private OutputSink previousSink;
+    private CapturingOutputSink sink;
+
+    @BeforeEach
+    void captureOutput() {
+        previousSink = Terminal.getOutputSink();
+        sink = new CapturingOutputSink();
+        Terminal.setOutputSink(sink);
+    }
+
+    @AfterEach
+    void restoreOutput() {
+        Terminal.setOutputSink(previousSink);
+    }
+
+    @Test
+    void ignoresCommandsRecordedAfterClose() throws IOException {
+        Path journalDirectory = directory.resolve("journal");
+        TrainSimulationCLI cli = new TrainSimulationCLI();
+        CommandJournal journal = CommandJournal.open(cli, journalDirectory);
+        cli.setJournal(journal);
+        run(cli, ADD_TRACK);
+        journal.close();
+        // more commands than fit into the buffer of the pending commands
+        for (int i = 0; i < CommandJournal.CHECKPOINT_INTERVAL / 10; i++) {
+            journal.record(ADD_TRACK);
+        }
+
+        TrainSimulationCLI recovered = new TrainSimulationCLI();
+        CommandJournal.open(recovered, journalDirectory).close();
+        assertEquals(1, recovered.getSimulation().getTrackNetwork().getAllTracks().size());
+    }
+
+    @Test
+    void loadReportsCheckpointErrorsAsJournalErrors() throws IOException {
+        Path snapshot = directory.resolve("saved.snapshot");
+        TrainSimulationCLI saving = new TrainSimulationCLI();
+        run(saving, ADD_TRACK);
+        run(saving, "save " + snapshot);
+
+        Path journalDirectory = directory.resolve("journal");
+        TrainSimulationCLI cli = new TrainSimulationCLI();
+        CommandJournal journal = CommandJournal.open(cli, journalDirectory);
+        cli.setJournal(journal);
+        // the snapshot of the checkpoint can not be written without the directory
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(journalDirectory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(journalDirectory);
+
+        sink.clear();
+        run(cli, "load " + snapshot);
+        journal.close();
+        assertEquals(Collections.singletonList(
+                "the snapshot was loaded, but the checkpoint of the journal can not be written."), sink.getErrors());
+        assertEquals(1, cli.getSimulation().getTrackNetwork().getAllTracks().size());
+    }
+
+    private static void run(TrainSimulationCLI cli, String command) throws IOException {
+        cli.runScript(new BufferedReader(new StringReader(command)));
+    }
+}
@@ -0,0 +1,162 @@
+package edu.kit.informatik.uxnvp.trainsimulation.cli;
+
+import edu.kit.informatik.CapturingOutputSink;
+import edu.kit.informatik.OutputSink;
+import edu.kit.informatik.Terminal;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs command scripts through the {@link TrainSimulationCLI} and checks their output against the output of the
+ * reference implementation.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class TrainSimulationCLITest {
+    /**
+     * The options the scripts are run with: the reference implementation and every optimization on its own.
+     */
+    private static final String[] OPTIONS = {"set option rail-graph false", "set option rail-graph true",
+        "set option collision-grid true", "set option fast-forward true", "set option event-driven true"};
+    /**
+     * How often scripts whose output depends on the order of the trains are run with every option.
+     */
+    private static final int REPETITIONS = 20;
+
+    private OutputSink previousSink;
+    private CapturingOutputSink sink;
+
+    @BeforeEach
+    void captureOutput() {
+        previousSink = Terminal.getOutputSink();
+        sink = new CapturingOutputSink();
+        Terminal.setOutputSink(sink);
+    }
+
+    @AfterEach
+    void restoreOutput() {
+        Terminal.setOutputSink(previousSink);
+    }
+
+    @Test
+    void trainThatNoLongerFitsCrashesOnStep() throws IOException {
+        List<String> script = Arrays.asList(
+                "create engine steam S0 N0 1 true true",
+                "create coach passenger 12 true true",
+                "add train 1 S0-N0",
+                "add train 1 W1",
+                "add track (0,0) -> (6,0)",
+                "add track (0,0) -> (0,-1)",
+                "add track (0,-1) -> (6,-1)",
+                "add track (6,0) -> (6,-1)",
+                "put train 1 at (0,-1) in direction 1,0",
+                // the track has no points in its middle, so it is not occupied by the train
+                "delete track 4",
+                "step 1");
+        for (String option : OPTIONS) {
+            assertEquals(Collections.singletonList("Crash of train 1"), runLastCommand(option, script), option);
+        }
+    }
+
+    @Test
+    void trainThatFitsBehindItsNextLocationKeepsMoving() throws IOException {
+        // the train only loses its last location, which it leaves in the next step
+        List<String> script = Arrays.asList(
+                "create engine steam S0 N0 1 true true",
+                "create coach passenger 7 true true",
+                "add train 1 S0-N0",
+                "add train 1 W1",
+                "add track (0,0) -> (6,0)",
+                "add track (0,0) -> (0,-1)",
+                "add track (0,-1) -> (6,-1)",
+                "add track (6,0) -> (6,-1)",
+                "put train 1 at (0,-1) in direction 1,0",
+                "delete track 4",
+                "step 2");
+        for (String option : OPTIONS) {
+            assertEquals(Collections.singletonList("Train 1 at (2,-1)"), runLastCommand(option, script), option);
+        }
+    }
+
+    @Test
+    void trainThatCrashesIntoTwoTrainsIsGroupedLikeTheReference() throws IOException {
+        // train 3 runs into train 1 on the track (15,0) -> (25,0) and into train 2 on the track (5,0) -> (15,0)
+        List<String> script = Arrays.asList(
+                "create engine steam S1 N1 1 true true",
+                "create engine steam S2 N2 1 true true",
+                "create engine steam S3 N3 4 true true",
+                "add train 1 S1-N1",
+                "add train 2 S2-N2",
+                "add train 3 S3-N3",
+                "add track (0,0) -> (5,0)",
+                "add track (5,0) -> (15,0)",
+                "add track (15,0) -> (25,0)",
+                "add track (25,0) -> (30,0)",
+                "put train 1 at (25,0) in direction -1,0",
+                "put train 2 at (5,0) in direction 1,0",
+                "put train 3 at (17,0) in direction 1,0",
+                "step 1");
+        for (int i = 0; i < REPETITIONS; i++) {
+            for (String option : OPTIONS) {
+                TrainSimulationCLI cli = new TrainSimulationCLI();
+                run(cli, Collections.singletonList(option));
+                run(cli, script.subList(0, script.size() - 1));
+                // the reference implementation adds train 3 to the crashes of the trains before it, so there is one
+                // crash for each of them only if train 3 is the last of the trains on the rails
+                List<Integer> order = cli.getSimulation().getFleet().getTrainsOnRails().stream()
+                        .map(Train::getId)
+                        .collect(Collectors.toList());
+                List<String> expected = order.indexOf(3) == order.size() - 1
+                        ? Arrays.asList("Crash of train 1,3", "Crash of train 2,3")
+                        : Collections.singletonList("Crash of train 1,2,3");
+                assertEquals(expected, runLastCommand(cli, script), option + " with the trains in order " + order);
+            }
+        }
+    }
+
+    /**
+     * Runs a script with an option and returns the output of its last command.
+     * @param option the command that sets the option.
+     * @param script the commands to run.
+     * @return the lines and error lines printed by the last command.
+     * @throws IOException if the script can not be read.
+     */
+    private List<String> runLastCommand(String option, List<String> script) throws IOException {
+        TrainSimulationCLI cli = new TrainSimulationCLI();
+        run(cli, Collections.singletonList(option));
+        run(cli, script.subList(0, script.size() - 1));
+        return runLastCommand(cli, script);
+    }
+
+    /**
+     * Runs the last command of a script whose other commands were already run.
+     * @param cli the CLI that ran the other commands.
+     * @param script the commands.
+     * @return the lines and error lines printed by the last command.
+     * @throws IOException if the script can not be read.
+     */
+    private List<String> runLastCommand(TrainSimulationCLI cli, List<String> script) throws IOException {
+        sink.clear();
+        run(cli, script.subList(script.size() - 1, script.size()));
+        List<String> output = new ArrayList<>(sink.getLines());
+        output.addAll(sink.getErrors());
+        return output;
+    }
+
+    private static void run(TrainSimulationCLI cli, List<String> commands) throws IOException {
+        cli.runScript(new BufferedReader(new StringReader(String.join("\n", commands))));
+    }
+}
@@ -0,0 +1,201 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.PackedPoint;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Switch;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that walking with {@link RailCursor cursors} on the {@link RailGraph} leads to the same locations as the
+ * reference walkers {@link TrackNetwork#walkStep(TrainLocation)} and
+ * {@link TrackNetwork#walkStepBackwards(TrainLocation)}.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class RailGraphTest {
+    private static final int NETWORKS = 50;
+    private static final int WALK_LENGTH = 80;
+
+    @Test
+    void cursorsFollowReferenceWalkersOnStaircases() {
+        Random random = new Random(1);
+        for (int i = 0; i < NETWORKS; i++) {
+            TrackNetwork network = new TrackNetwork();
+            List<Switch> switches = buildStaircase(network, random);
+            // the graph is compiled before the switches are set, so it also has to follow the switch updates
+            network.getRailGraph();
+            for (Switch switchTrack : switches) {
+                network.setSwitch(switchTrack, random.nextBoolean()
+                        ? switchTrack.getEndPoint1() : switchTrack.getEndPoint2());
+            }
+            assertWalksMatch(network);
+
+            // every switch in its other position
+            for (Switch switchTrack : switches) {
+                network.setSwitch(switchTrack, switchTrack.getEndPoint().equals(switchTrack.getEndPoint1())
+                        ? switchTrack.getEndPoint2() : switchTrack.getEndPoint1());
+            }
+            assertWalksMatch(network);
+        }
+    }
+
+    @Test
+    void cursorsFollowReferenceWalkersOnRings() {
+        Random random = new Random(2);
+        for (int i = 0; i < NETWORKS; i++) {
+            TrackNetwork network = new TrackNetwork();
+            int width = 1 + random.nextInt(8);
+            int height = 1 + random.nextInt(8);
+            Point[] corners = {new Point(0, 0), new Point(width, 0), new Point(width, height), new Point(0, height)};
+            for (int corner = 0; corner < corners.length; corner++) {
+                network.registerTrack(new Track(corners[corner], corners[(corner + 1) % corners.length]));
+            }
+            assertWalksMatch(network);
+        }
+    }
+
+    @Test
+    void compiledGraphMatchesIncrementalGraph() {
+        Random random = new Random(3);
+        for (int i = 0; i < NETWORKS; i++) {
+            TrackNetwork network = new TrackNetwork();
+            network.getRailGraph();
+            for (Switch switchTrack : buildStaircase(network, random)) {
+                network.setSwitch(switchTrack, switchTrack.getEndPoint2());
+            }
+            RailGraph compiled = new RailGraph(network);
+            assertEquals(compiled.isRegular(), network.getRailGraph().isRegular());
+            for (TrainLocation location : findLocations(network)) {
+                assertEquals(compiled.walkStep(location), network.getRailGraph().walkStep(location));
+                assertEquals(compiled.walkStepBackwards(location), network.getRailGraph().walkStepBackwards(location));
+            }
+        }
+    }
+
+    @Test
+    void trackOverTheEndOfAnotherTrackMakesGraphIrregular() {
+        TrackNetwork network = new TrackNetwork();
+        network.registerTrack(new Track(new Point(0, 6), new Point(3, 6)));
+        network.registerTrack(new Track(new Point(0, 0), new Point(0, 6)));
+        network.registerTrack(new Track(new Point(0, 0), new Point(3, 0)));
+        network.getRailGraph();
+        // the end (3,6) of the first track is in the middle of the new track
+        Track track = new Track(new Point(3, 0), new Point(3, 7));
+        network.registerTrack(track);
+        assertFalse(network.getRailGraph().isRegular());
+        network.removeTrack(track);
+        assertTrue(network.getRailGraph().isRegular());
+
+        Switch switchTrack = new Switch(new Point(3, 0), new Point(3, 7), new Point(6, 0));
+        network.registerTrack(switchTrack);
+        network.setSwitch(switchTrack, switchTrack.getEndPoint1());
+        assertFalse(network.getRailGraph().isRegular());
+        network.setSwitch(switchTrack, switchTrack.getEndPoint2());
+        assertTrue(network.getRailGraph().isRegular());
+        assertWalksMatch(network);
+    }
+
+    /**
+     * Builds a staircase of tracks that alternately go right and up, so the tracks never cross. Some steps are
+     * switches whose second endpoint leads into a dead end next to the staircase.
+     * @param network the network to register the tracks in.
+     * @param random the source of the track lengths and of the switches.
+     * @return the switches of the staircase, which do not have a position yet.
+     */
+    private static List<Switch> buildStaircase(TrackNetwork network, Random random) {
+        List<Switch> switches = new ArrayList<>();
+        Point start = new Point(0, 0);
+        int steps = 1 + random.nextInt(8);
+        for (int step = 0; step < steps; step++) {
+            boolean right = step % 2 == 0;
+            int length = 1 + random.nextInt(5);
+            Point end = right ? new Point(start.getX() + length, start.getY())
+                    : new Point(start.getX(), start.getY() + length);
+            if (step > 0 && random.nextInt(3) == 0) {
+                // the branch continues in the direction of the previous step, away from the rest of the staircase
+                int branchLength = 1 + random.nextInt(5);
+                Point branchEnd = right ? new Point(start.getX(), start.getY() + branchLength)
+                        : new Point(start.getX() + branchLength, start.getY());
+                Switch switchTrack = new Switch(start, end, branchEnd);
+                network.registerTrack(switchTrack);
+                switches.add(switchTrack);
+            } else {
+                network.registerTrack(new Track(start, end));
+            }
+            start = end;
+        }
+        return switches;
+    }
+
+    /**
+     * Finds all locations on the active parts of the tracks of a network, in both directions along the tracks.
+     * @param network the network.
+     * @return a new list of the locations.
+     */
+    private static List<TrainLocation> findLocations(TrackNetwork network) {
+        List<TrainLocation> locations = new ArrayList<>();
+        for (Track track : network.getAllTracks()) {
+            if (track.getEndPoint() == null) {
+                continue;
+            }
+            Point start = track.getStartPoint();
+            Direction direction = Direction.fromPoint(new Point(
+                    Integer.signum(track.getEndPoint().getX() - start.getX()),
+                    Integer.signum(track.getEndPoint().getY() - start.getY())));
+            for (int offset = 0; offset <= track.getLength(); offset++) {
+                Point point = new Point(start.getX() + offset * direction.getDx(),
+                        start.getY() + offset * direction.getDy());
+                locations.add(new TrainLocation(point, direction));
+                locations.add(new TrainLocation(point, direction.opposite()));
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Walks from every location of a network with a cursor and with the reference walker, in both directions, and
+     * checks that they visit the same locations and leave the rails at the same step.
+     * @param network the network to walk on.
+     */
+    private static void assertWalksMatch(TrackNetwork network) {
+        RailGraph railGraph = network.getRailGraph();
+        assertTrue(railGraph.isRegular());
+        for (TrainLocation start : findLocations(network)) {
+            RailCursor cursor = railGraph.locate(start);
+            if (cursor == null) {
+                // the location can not be reached by walking, e.g. a connection point facing back onto its track
+                continue;
+            }
+            assertEquals(start, cursor.toLocation());
+            assertWalkMatches(railGraph, cursor.copy(), network, start, true);
+            assertWalkMatches(railGraph, cursor.copy(), network, start, false);
+        }
+    }
+
+    private static void assertWalkMatches(RailGraph railGraph, RailCursor cursor, TrackNetwork network,
+                                          TrainLocation start, boolean forward) {
+        TrainLocation expected = start;
+        for (int step = 0; step < WALK_LENGTH && expected != null; step++) {
+            expected = forward ? network.walkStep(expected) : network.walkStepBackwards(expected);
+            boolean moved = forward ? railGraph.stepForward(cursor) : railGraph.stepBackward(cursor);
+            String message = String.format("walking %s from %s, step %d", forward ? "forward" : "backwards",
+                    start, step + 1);
+            assertEquals(expected != null, moved, message);
+            if (moved) {
+                assertEquals(expected, cursor.toLocation(), message);
+                assertEquals(PackedPoint.of(expected.getPoint()), cursor.getPackedPoint(), message);
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package edu.kit.informatik.uxnvp.trainsimulation.controller;
+
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Direction;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.Point;
+import edu.kit.informatik.uxnvp.trainsimulation.model.geometry.TrainLocation;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Switch;
+import edu.kit.informatik.uxnvp.trainsimulation.model.track.Track;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Coach;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.CoachType;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Engine;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.EngineType;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.Train;
+import edu.kit.informatik.uxnvp.trainsimulation.model.train.TrainSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that {@link SimulationSnapshot snapshots} restore the simulations they were saved from and that truncated or
+ * corrupt snapshots are rejected with a {@link SnapshotFormatException}.
+ * @author Max Schweikart
+ * @version 1.0
+ */
+class SimulationSnapshotTest {
+    /**
+     * The size of the magic number, the format version and the amount of tracks at the start of a snapshot.
+     */
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+    /**
+     * The size of the amounts of coaches, train-sets and trains at the end of a snapshot without any of them.
+     */
+    private static final int EMPTY_FLEET_TAIL_SIZE = 3 * Integer.BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresSavedSimulation() throws IOException {
+        byte[] snapshot = save(buildSimulation());
+        TrainSimulation restored = load(snapshot);
+        assertEquals(2, restored.getFleet().getTrainsOnRails().size());
+        assertArrayEquals(snapshot, save(restored));
+    }
+
+    @Test
+    void restoresTrainThatNoLongerFits() throws IOException {
+        TrainSimulation simulation = new TrainSimulation();
+        Track track = new Track(new Point(6, 0), new Point(6, -1));
+        simulation.getTrackNetwork().registerTrack(new Track(new Point(0, 0), new Point(6, 0)));
+        simulation.getTrackNetwork().registerTrack(new Track(new Point(0, 0), new Point(0, -1)));
+        simulation.getTrackNetwork().registerTrack(new Track(new Point(0, -1), new Point(6, -1)));
+        simulation.getTrackNetwork().registerTrack(track);
+        Train train = addTrain(simulation, 1, new Engine(EngineType.STEAM, "S", "N", 12, true, true));
+        simulation.putTrain(train, new TrainLocation(new Point(0, -1), Direction.RIGHT));
+        // the train stays on the rails until the next step
+        simulation.getTrackNetwork().removeTrack(track);
+
+        TrainSimulation restored = load(save(simulation));
+        assertNotNull(restored.getFleet().getTrainById(1).getCurrentLocation());
+    }
+
+    @Test
+    void rejectsTruncatedSnapshots() throws IOException {
+        byte[] snapshot = save(buildSimulation());
+        for (int length = 0; length < snapshot.length; length++) {
+            byte[] truncated = Arrays.copyOf(snapshot, length);
+            assertThrows(SnapshotFormatException.class, () -> load(truncated), "truncated to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsStringLongerThanSnapshot() throws IOException {
+        TrainSimulation simulation = new TrainSimulation();
+        simulation.getFleet().addEngine(new Engine(EngineType.STEAM, "S", "N", 1, true, true));
+        byte[] snapshot = save(simulation);
+        // the series of the engine follows the amount of engines and the type of the engine
+        ByteBuffer.wrap(snapshot).putInt(HEADER_SIZE + Integer.BYTES + 1, Integer.MAX_VALUE);
+        assertThrows(SnapshotFormatException.class, () -> load(snapshot));
+    }
+
+    @Test
+    void rejectsRollingStocksThatCommandsRefuse() throws IOException {
+        TrainSimulation withoutLength = new TrainSimulation();
+        withoutLength.getFleet().addEngine(new Engine(EngineType.STEAM, "S", "N", 0, true, true));
+        assertRejected(withoutLength);
+
+        TrainSimulation withoutCouplings = new TrainSimulation();
+        withoutCouplings.getFleet().addCoach(new Coach(CoachType.FREIGHT, 1, 1, false, false));
+        assertRejected(withoutCouplings);
+
+        // the fleet can not hold two engines with the same id, so the entry of the engine is repeated in the snapshot
+        TrainSimulation oneEngine = new TrainSimulation();
+        oneEngine.getFleet().addEngine(new Engine(EngineType.DIESEL, "D", "N", 1, true, true));
+        byte[] snapshot = save(oneEngine);
+        byte[] engine = Arrays.copyOfRange(snapshot, HEADER_SIZE + Integer.BYTES,
+                snapshot.length - EMPTY_FLEET_TAIL_SIZE);
+        ByteBuffer duplicated = ByteBuffer.allocate(snapshot.length + engine.length);
+        duplicated.put(snapshot, 0, HEADER_SIZE).putInt(2).put(engine).put(engine)
+                .put(snapshot, snapshot.length - EMPTY_FLEET_TAIL_SIZE, EMPTY_FLEET_TAIL_SIZE);
+        assertThrows(SnapshotFormatException.class, () -> load(duplicated.array()));
+    }
+
+    @Test
+    void rejectsTrainsThatCommandsRefuse() throws IOException {
+        TrainSimulation badCoupling = new TrainSimulation();
+        Train train = addTrain(badCoupling, 1, new Engine(EngineType.STEAM, "S", "N", 1, true, false));
+        Coach coach = new Coach(CoachType.PASSENGER, 1, 1, true, true);
+        badCoupling.getFleet().addCoach(coach);
+        train.addRollingStock(coach);
+        assertRejected(badCoupling);
+
+        TrainSimulation mixedTrainSets = new TrainSimulation();
+        train = addTrain(mixedTrainSets, 1, new TrainSet("A", "N", 1, true, true));
+        TrainSet trainSet = new TrainSet("B", "N", 1, true, true);
+        mixedTrainSets.getFleet().addTrainSet(trainSet);
+        train.addRollingStock(trainSet);
+        assertRejected(mixedTrainSets);
+
+        // both trains are placed without checks, so they occupy the same points
+        TrainSimulation overlapping = new TrainSimulation();
+        overlapping.getTrackNetwork().registerTrack(new Track(new Point(0, 0), new Point(10, 0)));
+        for (int id = 1; id <= 2; id++) {
+            addTrain(overlapping, id, new Engine(EngineType.STEAM, "S", "N" + id, 3, true, true))
+                    .setLocation(new TrainLocation(new Point(5, 0), Direction.RIGHT));
+        }
+        assertRejected(overlapping);
+
+        TrainSimulation offTheRails = new TrainSimulation();
+        offTheRails.getTrackNetwork().registerTrack(new Track(new Point(0, 0), new Point(10, 0)));
+        addTrain(offTheRails, 1, new Engine(EngineType.STEAM, "S", "N", 3, true, true))
+                .setLocation(new TrainLocation(new Point(5, 1), Direction.RIGHT));
+        assertRejected(offTheRails);
+    }
+
+    /**
+     * Builds a simulation with every kind of track, rolling stock and train.
+     * @return the new simulation.
+     */
+    private static TrainSimulation buildSimulation() {
+        TrainSimulation simulation = new TrainSimulation();
+        TrackNetwork network = simulation.getTrackNetwork();
+        network.registerTrack(new Track(new Point(0, 0), new Point(10, 0)));
+        Switch switchTrack = new Switch(new Point(10, 0), new Point(20, 0), new Point(10, 10));
+        network.registerTrack(switchTrack);
+        network.setSwitch(switchTrack, switchTrack.getEndPoint1());
+        network.registerTrack(new Track(new Point(20, 0), new Point(30, 0)));
+
+        Train first = addTrain(simulation, 1, new Engine(EngineType.ELECTRICAL, "E", "N", 2, false, true));
+        Coach coach = new Coach(CoachType.SPECIAL, 1, 1, true, true);
+        simulation.getFleet().addCoach(coach);
+        first.addRollingStock(coach);
+        simulation.putTrain(first, new TrainLocation(new Point(5, 0), Direction.RIGHT));
+        Train second = addTrain(simulation, 2, new TrainSet("T", "N", 4, true, true));
+        simulation.putTrain(second, new TrainLocation(new Point(25, 0), Direction.RIGHT));
+        addTrain(simulation, 3, new Engine(EngineType.DIESEL, "D", "N", 1, true, true));
+        simulation.getFleet().addCoach(new Coach(CoachType.FREIGHT, 2, 1, true, false));
+        return simulation;
+    }
+
+    private static Train addTrain(TrainSimulation simulation, int id, Engine engine) {
+        simulation.getFleet().addEngine(engine);
+        Train train = new Train(id);
+        train.addRollingStock(engine);
+        simulation.getFleet().addTrain(train);
+        return train;
+    }
+
+    private static Train addTrain(TrainSimulation simulation, int id, TrainSet trainSet) {
+        simulation.getFleet().addTrainSet(trainSet);
+        Train train = new Train(id);
+        train.addRollingStock(trainSet);
+        simulation.getFleet().addTrain(train);
+        return train;
+    }
+
+    private void assertRejected(TrainSimulation simulation) throws IOException {
+        byte[] snapshot = save(simulation);
+        assertThrows(SnapshotFormatException.class, () -> load(snapshot));
+    }
+
+    private byte[] save(TrainSimulation simulation) throws IOException {
+        Path path = directory.resolve("saved.snapshot");
+        SimulationSnapshot.save(simulation, path);
+        return Files.readAllBytes(path);
+    }
+
+    private TrainSimulation load(byte[] snapshot) throws IOException {
+        Path path = Files.createTempFile(directory, "loaded", ".snapshot");
+        Files.write(path, snapshot);
+        return SimulationSnapshot.load(path, new SimulationOptions());
+    }
+}
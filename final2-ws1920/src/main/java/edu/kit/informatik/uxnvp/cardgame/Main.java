@@ -1,5 +1,7 @@
 package edu.kit.informatik.uxnvp.cardgame;
 
+import edu.kit.informatik.BufferedOutputSink;
+import edu.kit.informatik.Terminal;
 import edu.kit.informatik.uxnvp.cardgame.view.CardGameCLI;
 
 /**
@@ -21,6 +23,8 @@ public final class Main {
      * @param args command line arguments, will be ignored.
      */
     public static void main(String[] args) {
+        // the output is flushed whenever the prompt waits for input
+        Terminal.setOutputSink(new BufferedOutputSink(System.out, System.err));
         CardGameCLI cli = new CardGameCLI();
         cli.startPromptLoop();
     }
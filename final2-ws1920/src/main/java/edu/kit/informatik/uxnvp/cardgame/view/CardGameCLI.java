@@ -78,6 +78,7 @@ public class CardGameCLI {
                 String input = Terminal.readLine();
                 handleInput(input);
             }
+            Terminal.flush();
         }
     }
 
@@ -0,0 +1,78 @@
+package edu.kit.informatik;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Collects lines in buffers and only writes them when a buffer is full or when the sink is
+ * flushed. Switching between regular and error output flushes the buffer of the other kind first,
+ * so both kinds of lines keep their relative order if they end up in the same place.
+ */
+public class BufferedOutputSink implements OutputSink {
+  private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+  private final Writer output;
+  private final Writer error;
+  private final String lineSeparator;
+  private Writer lastWriter;
+
+  /**
+   * Creates a sink with the default buffer size.
+   *
+   * @param output the stream to write regular output to
+   * @param error the stream to write error output to
+   */
+  public BufferedOutputSink(OutputStream output, OutputStream error) {
+    this(output, error, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a sink.
+   *
+   * @param output the stream to write regular output to
+   * @param error the stream to write error output to
+   * @param bufferSize the size of each of the two buffers in characters
+   */
+  public BufferedOutputSink(OutputStream output, OutputStream error, int bufferSize) {
+    this.output = new BufferedWriter(new OutputStreamWriter(output), bufferSize);
+    this.error = new BufferedWriter(new OutputStreamWriter(error), bufferSize);
+    this.lineSeparator = System.lineSeparator();
+  }
+
+  @Override
+  public void printLine(String message) {
+    write(output, message);
+  }
+
+  @Override
+  public void printError(String message) {
+    write(error, message);
+  }
+
+  @Override
+  public void flush() {
+    try {
+      output.flush();
+      error.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write output", e);
+    }
+  }
+
+  private void write(Writer writer, String message) {
+    try {
+      if (lastWriter != null && lastWriter != writer) {
+        lastWriter.flush();
+      }
+      lastWriter = writer;
+      writer.write(message);
+      writer.write(lineSeparator);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write output", e);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package edu.kit.informatik;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps all printed lines in memory instead of printing them, for example to check the output of
+ * commands in tests.
+ */
+public class CapturingOutputSink implements OutputSink {
+  private final List<String> lines = new ArrayList<>();
+  private final List<String> errors = new ArrayList<>();
+
+  @Override
+  public void printLine(String message) {
+    lines.add(message);
+  }
+
+  @Override
+  public void printError(String message) {
+    errors.add(message);
+  }
+
+  @Override
+  public void flush() {
+    // the lines are kept until they are cleared
+  }
+
+  /**
+   * Returns the lines of regular output printed so far.
+   *
+   * @return a read-only view on the printed lines
+   */
+  public List<String> getLines() {
+    return Collections.unmodifiableList(lines);
+  }
+
+  /**
+   * Returns the lines of error output printed so far.
+   *
+   * @return a read-only view on the printed error lines
+   */
+  public List<String> getErrors() {
+    return Collections.unmodifiableList(errors);
+  }
+
+  /**
+   * Forgets all lines printed so far.
+   */
+  public void clear() {
+    lines.clear();
+    errors.clear();
+  }
+}
@@ -0,0 +1,25 @@
+package edu.kit.informatik;
+
+/**
+ * A destination for the lines printed through {@link Terminal}.
+ */
+public interface OutputSink {
+  /**
+   * Prints a line of regular output.
+   *
+   * @param message the line to print, without a line separator
+   */
+  void printLine(String message);
+
+  /**
+   * Prints a line of error output.
+   *
+   * @param message the line to print, without a line separator
+   */
+  void printError(String message);
+
+  /**
+   * Writes all buffered lines to their destination. Sinks without a buffer do nothing.
+   */
+  void flush();
+}
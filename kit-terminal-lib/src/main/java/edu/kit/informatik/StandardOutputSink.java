@@ -0,0 +1,24 @@
+package edu.kit.informatik;
+
+/**
+ * Prints every line to the current {@link System#out} or {@link System#err} right away. This is how
+ * {@link Terminal} behaved before output sinks existed.
+ */
+public class StandardOutputSink implements OutputSink {
+  @Override
+  @SuppressWarnings("java:S106") // for using System.out
+  public void printLine(String message) {
+    System.out.println(message);
+  }
+
+  @Override
+  @SuppressWarnings("java:S106") // for using System.err
+  public void printError(String message) {
+    System.err.println(message);
+  }
+
+  @Override
+  public void flush() {
+    // every line is printed right away
+  }
+}
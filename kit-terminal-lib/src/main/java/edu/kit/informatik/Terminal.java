@@ -11,25 +11,31 @@ import java.io.InputStreamReader;
  * used in my code.
  * It might be erroneous and has not been testet properly as it was only implemented to get my
  * code to run again.
+ * Printed lines go to an {@link OutputSink}, which prints them right away by default. Buffering
+ * sinks are flushed before reading a line and when the program exits.
  */
 public class Terminal {
   private static final BufferedReader INPUT_READER =
       new BufferedReader((new InputStreamReader(System.in)));
 
+  private static OutputSink outputSink = new StandardOutputSink();
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(Terminal::flush));
+  }
+
   private Terminal() {
     throw new UnsupportedOperationException("This utility class should not be instantiated!");
   }
 
-  @SuppressWarnings("java:S106") // for using System.err
   public static void printError(String message) {
     // original implementation printed to System.err too
-    System.err.println(message);
+    outputSink.printError(message);
   }
 
-  @SuppressWarnings("java:S106") // for using System.out
   public static void printLine(String message) {
     // original implementation printed to System.out too
-    System.out.println(message);
+    outputSink.printLine(message);
   }
 
   public static void printLine(int id) {
@@ -38,6 +44,8 @@ public class Terminal {
 
   @SuppressWarnings("java:S112") // for rethrowing as runtime exception
   public static String readLine() {
+    // everything printed so far has to be visible before waiting for input
+    flush();
     try {
       return INPUT_READER.readLine();
     } catch (IOException e) {
@@ -45,4 +53,30 @@ public class Terminal {
       throw new RuntimeException("Could not read input", e);
     }
   }
+
+  /**
+   * Writes all lines that the output sink buffered so far.
+   */
+  public static void flush() {
+    outputSink.flush();
+  }
+
+  /**
+   * Replaces the output sink. The current sink is flushed before, so no lines are lost.
+   *
+   * @param sink the sink to print all following lines to
+   */
+  public static void setOutputSink(OutputSink sink) {
+    flush();
+    outputSink = sink;
+  }
+
+  /**
+   * Returns the output sink that lines are currently printed to.
+   *
+   * @return the current output sink
+   */
+  public static OutputSink getOutputSink() {
+    return outputSink;
+  }
 }